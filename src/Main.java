@@ -1,237 +1,530 @@
-import cli.entity.Booking;
-import cli.entity.Customer;
-import cli.entity.MusicShow;
-import cli.entity.TheaterPlay;
-import cli.repository.CsvRepository;
-
-import java.time.LocalDate;
-import java.util.Scanner;
-import java.util.stream.Collectors;
-
-/**
- * Κύρια κλάση της εφαρμογής.
- * <p>Παρέχει πολύχρωμο, «boxed» CLI με βελτιωμένο UX για όλα τα μενού.</p>
- */
-public class Main {
-
-    /* ---------- ANSI ---------- */
-    private static final String RESET  = "\u001B[0m";
-    private static final String BOLD   = "\u001B[1m";
-    private static final String CYAN   = "\u001B[36m";
-    private static final String MAGENTA= "\u001B[35m";
-    private static final String YELLOW = "\u001B[33m";
-    private static final String GREEN  = "\u001B[32m";
-    private static final String RED    = "\u001B[31m";
-
-    /* ---------- I/O ---------- */
-    private static final Scanner IN = new Scanner(System.in);
-
-    /* ---------- Repos ---------- */
-    private static final CsvRepository<TheaterPlay> theaterRepo =
-            new CsvRepository<>("theater.csv", TheaterPlay::fromString, TheaterPlay::toString);
-    private static final CsvRepository<MusicShow> musicRepo =
-            new CsvRepository<>("music.csv", MusicShow::fromString, MusicShow::toString);
-    private static final CsvRepository<Customer> customerRepo =
-            new CsvRepository<>("customers.csv", Customer::fromString, Customer::toString);
-    private static final CsvRepository<Booking> bookingRepo =
-            new CsvRepository<>("bookings.csv", Booking::fromString, Booking::toString);
-
-    /* ---------- Main ---------- */
-    public static void main(String[] args) {
-        load();
-        loop();
-        save();
-        printlnBox(GREEN + "✔  Ευχαριστούμε που χρησιμοποιήσατε την εφαρμογή!  " + RESET);
-    }
-
-    /* ---------- Core ---------- */
-    private static void load() { theaterRepo.load(); musicRepo.load(); customerRepo.load(); bookingRepo.load(); }
-    private static void save() { theaterRepo.save(); musicRepo.save(); customerRepo.save(); bookingRepo.save(); }
-
-    /* ---------- Main Loop ---------- */
-    private static void loop() {
-        while (true) {
-            clear();
-            printMenu();
-            switch (intChoice()) {
-                case 1  -> manageTheater();
-                case 2  -> manageMusic();
-                case 3  -> manageCustomers();
-                case 4  -> book(Booking.EventType.THEATER);
-                case 5  -> book(Booking.EventType.MUSIC);
-                case 6  -> stats();
-                case 0  -> { return; }
-                default -> error("Άκυρη επιλογή");
-            }
-        }
-    }
-
-    /* ---------- UI Helpers ---------- */
-
-    /** Καθαρίζει την οθόνη (ANSI). */
-    private static void clear() {
-        System.out.print("\033[H\033[2J");
-        System.out.flush();
-    }
-
-    /** Εκτυπώνει το κεντρικό μενού σε «κουτί». */
-    private static void printMenu() {
-        box("ΔΙΑΧΕΙΡΙΣΗ ΚΑΛΛΙΤΕΧΝΙΚΩΝ",
-                "1. Θεατρικές παραστάσεις",
-                "2. Μουσικές παραστάσεις",
-                "3. Πελάτες",
-                "4. Κράτηση θεατρικής παράστασης",
-                "5. Κράτηση μουσικής παράστασης",
-                "6. Στατιστικά εισιτηρίων",
-                "0. Έξοδος");
-        System.out.print(YELLOW + "➤ Επιλογή: " + RESET);
-    }
-
-    /** Υπο-μενού CRUD σε κουτί. */
-    private static void crudMenu(Runnable add, Runnable edit, Runnable del, Runnable list) {
-        box("ΥΠΟ-ΜΕΝΟΥ",
-                "a. Εισαγωγή",
-                "b. Διόρθωση",
-                "c. Διαγραφή",
-                "d. Λίστα",
-                "x. Επιστροφή");
-        System.out.print(YELLOW + "➤ Επιλογή: " + RESET);
-        switch (IN.nextLine().trim().toLowerCase()) {
-            case "a" -> add.run();
-            case "b" -> edit.run();
-            case "c" -> del.run();
-            case "d" -> { clear(); list.run(); pause(); }
-            default  -> { /* back or unknown */ }
-        }
-    }
-
-    /** Εκτυπώνει κουτί με τίτλο & γραμμές. */
-    private static void box(String title, String... lines) {
-        int width = Math.max(title.length(), java.util.Arrays.stream(lines).mapToInt(String::length).max().orElse(0)) + 4;
-        String top    = "╔" + "═".repeat(width) + "╗";
-        String divider= "╠" + "═".repeat(width) + "╣";
-        String bottom = "╚" + "═".repeat(width) + "╝";
-        System.out.println(CYAN + top + RESET);
-        System.out.println(CYAN + "║" + center(title, width) + "║" + RESET);
-        System.out.println(CYAN + divider + RESET);
-        for (String l : lines) System.out.println("║ " + pad(l, width - 2) + "║");
-        System.out.println(CYAN + bottom + RESET);
-    }
-
-    /** Κουτί ενός μόνο μηνύματος (π.χ. επιβεβαίωση). */
-    private static void printlnBox(String msg) {
-        int w = msg.length() + 2;
-        System.out.println("╔" + "═".repeat(w) + "╗");
-        System.out.println("║ " + msg + " ║");
-        System.out.println("╚" + "═".repeat(w) + "╝");
-    }
-
-    private static String center(String txt, int w) { int pad=(w - txt.length())/2; return " ".repeat(pad)+txt+" ".repeat(w-txt.length()-pad);}
-    private static String pad(String txt, int w)    { return txt + " ".repeat(Math.max(0, w - txt.length())); }
-    private static void pause() { System.out.print(YELLOW + "\nΠάτησε Enter για συνέχεια..." + RESET); IN.nextLine(); clear(); }
-
-    /* ---------- Managers ---------- */
-
-    private static void manageTheater()   { crudMenu(() -> theaterRepo.save(new TheaterPlay(
-                    theaterRepo.nextId(), ask("Τίτλος"), ask("Πρωταγωνιστής"), ask("Χώρος"), readDate())),
-            () -> editEntity(theaterRepo,"Κωδικός", tp -> {
-                tp.setTitle(optional(ask("Νέος τίτλος"),tp.getTitle()));
-                tp.setProtagonist(optional(ask("Νέος πρωταγωνιστής"),tp.getProtagonist()));
-                tp.setVenue(optional(ask("Νέος χώρος"),tp.getVenue()));
-                tp.setDate(optionalDate(readDateOptional(),tp.getDate()));}),
-            () -> deleteById(theaterRepo,"Κωδικός"),
-            () -> theaterRepo.findAll().forEach(System.out::println)); }
-
-    private static void manageMusic()     { crudMenu(() -> musicRepo.save(new MusicShow(
-                    musicRepo.nextId(), ask("Τίτλος"), ask("Τραγουδιστής"), ask("Χώρος"), readDate())),
-            () -> editEntity(musicRepo,"Κωδικός", ms -> {
-                ms.setTitle(optional(ask("Νέος τίτλος"),ms.getTitle()));
-                ms.setSinger(optional(ask("Νέος τραγουδιστής"),ms.getSinger()));
-                ms.setVenue(optional(ask("Νέος χώρος"),ms.getVenue()));
-                ms.setDate(optionalDate(readDateOptional(),ms.getDate()));}),
-            () -> deleteById(musicRepo,"Κωδικός"),
-            () -> musicRepo.findAll().forEach(System.out::println)); }
-
-    private static void manageCustomers() { crudMenu(() -> customerRepo.save(new Customer(customerRepo.nextId(), ask("Όνομα"))),
-            () -> editEntity(customerRepo,"Κωδικός", c -> c.setName(optional(ask("Νέο όνομα"),c.getName()))),
-            () -> deleteById(customerRepo,"Κωδικός"),
-            () -> customerRepo.findAll().forEach(System.out::println)); }
-
-    /* ---------- Bookings ---------- */
-    private static void book(Booking.EventType type) {
-        int custId = intInput("Κωδικός πελάτη");
-        if (customerRepo.findById(custId).isEmpty()) { error("Δεν υπάρχει πελάτης"); return; }
-
-        clear();
-        if (type == Booking.EventType.THEATER) theaterRepo.findAll().forEach(System.out::println);
-        else musicRepo.findAll().forEach(System.out::println);
-
-        int evId = intInput("Κωδικός παράστασης");
-        boolean ok = (type == Booking.EventType.THEATER)
-                ? theaterRepo.findById(evId).isPresent()
-                : musicRepo.findById(evId).isPresent();
-        if (!ok) { error("Δεν υπάρχει παράσταση"); return; }
-
-        bookingRepo.save(new Booking(bookingRepo.nextId(), custId, type, evId));
-        success("Η κράτηση ολοκληρώθηκε");
-    }
-
-    /* ---------- Stats ---------- */
-    private static void stats() {
-        clear();
-
-        var theaterStats = bookingRepo.findAll().stream()
-                .filter(b -> b.getEventType() == Booking.EventType.THEATER)
-                .collect(Collectors.groupingBy(Booking::getEventId, Collectors.counting()));
-        var musicStats = bookingRepo.findAll().stream()
-                .filter(b -> b.getEventType() == Booking.EventType.MUSIC)
-                .collect(Collectors.groupingBy(Booking::getEventId, Collectors.counting()));
-
-        /* Δημιουργούμε πλήρη πίνακα γραμμών για κάθε κατηγορία */
-        String[] theaterLines = java.util.stream.Stream.concat(
-                java.util.stream.Stream.of("Θεατρικές παραστάσεις:"),
-                theaterRepo.findAll().stream()
-                        .map(tp -> "  • " + tp.getTitle() + ": " +
-                                theaterStats.getOrDefault(tp.getId(), 0L))
-        ).toArray(String[]::new);
-
-        String[] musicLines = java.util.stream.Stream.concat(
-                java.util.stream.Stream.of("Μουσικές παραστάσεις:"),
-                musicRepo.findAll().stream()
-                        .map(ms -> "  • " + ms.getTitle() + ": " +
-                                musicStats.getOrDefault(ms.getId(), 0L))
-        ).toArray(String[]::new);
-
-        /* Εμφάνιση σε δύο κουτιά */
-        box("ΣΤΑΤΙΣΤΙΚΑ", theaterLines);
-        box(" ",           musicLines);   // αφήνουμε κενό τίτλο για να κρατήσουμε το ίδιο πλάτος
-        pause();
-    }
-
-
-    /* ---------- Generic Helpers ---------- */
-    @FunctionalInterface private interface Editor<T> { void apply(T t); }
-
-    private static <T> void editEntity(CsvRepository<T> repo, String prompt, Editor<T> ed) {
-        int id = intInput(prompt);
-        repo.findById(id).ifPresentOrElse(t -> { ed.apply(t); repo.save(t); success("Η ενημέρωση ολοκληρώθηκε"); },
-                () -> error("Δεν βρέθηκε"));
-    }
-    private static void deleteById(CsvRepository<?> repo,String prompt){ repo.delete(intInput(prompt)); success("Η διαγραφή ολοκληρώθηκε"); }
-
-    private static int  intChoice(){ try{ return Integer.parseInt(IN.nextLine().trim()); } catch(Exception e){ return -1; } }
-    private static int  intInput (String prompt){ return Integer.parseInt(ask(prompt)); }
-    private static String ask(String p){ System.out.print(YELLOW + p + ": " + RESET); return IN.nextLine().trim(); }
-
-    private static LocalDate readDate(){
-        while(true){ String s=ask("Ημερομηνία (YYYY-MM-DD)");
-            try{ return LocalDate.parse(s); } catch(Exception e){ error("Μη έγκυρη ημερομηνία"); } }
-    }
-    private static LocalDate readDateOptional(){ String s=IN.nextLine().trim(); return s.isBlank()?null:LocalDate.parse(s); }
-    private static LocalDate optionalDate(LocalDate v,LocalDate def){ return v==null?def:v; }
-    private static String     optional    (String v,String def){ return v.isBlank()?def:v; }
-
-    /* ---------- Feedback ---------- */
-    private static void error  (String msg){ printlnBox(RED   + "✖ " + msg + RESET); }
-    private static void success(String msg){ printlnBox(GREEN + "✔ " + msg + RESET); }
-}
+import cli.codec.BookingCodec;
+import cli.codec.CustomerCodec;
+import cli.codec.MusicShowCodec;
+import cli.codec.TheaterPlayCodec;
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.Identifiable;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.http.ApiServer;
+import cli.repository.BookingColumnStore;
+import cli.repository.BulkImport;
+import cli.repository.ChangeFeed;
+import cli.repository.CsvRepository;
+import cli.repository.FsyncPolicy;
+import cli.repository.LoadMode;
+import cli.repository.SecondaryIndex;
+import cli.repository.SortedIndex;
+import cli.repository.TextIndex;
+import cli.service.BatchProcessor;
+import cli.service.BookingPipeline;
+import cli.service.BookingService;
+import cli.service.BookingStats;
+import cli.service.SeatCounters;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Console;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Κύρια κλάση της εφαρμογής.
+ * <p>Παρέχει πολύχρωμο, «boxed» CLI με βελτιωμένο UX για όλα τα μενού.</p>
+ */
+public class Main {
+
+    /* ---------- ANSI ---------- */
+    private static final String RESET  = "\u001B[0m";
+    private static final String BOLD   = "\u001B[1m";
+    private static final String CYAN   = "\u001B[36m";
+    private static final String MAGENTA= "\u001B[35m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String GREEN  = "\u001B[32m";
+    private static final String RED    = "\u001B[31m";
+
+    /* ---------- I/O ---------- */
+    private static final Scanner IN = new Scanner(System.in);
+
+    /* ---------- Repos ---------- */
+    /*
+     * Κάθε μεταβολή γίνεται fsync στο journal πριν επιβεβαιωθεί, ώστε να αντέχει και σε διακοπή
+     * ρεύματος· το CSV ξαναγράφεται (με fsync) στο παρασκήνιο. Με -Dkallitechnis.fsync=batch ή
+     * =none ο συγχρονισμός γίνεται ανά ομάδα ή αφήνεται στο λειτουργικό, με κίνδυνο να χαθούν
+     * οι τελευταίες μεταβολές.
+     */
+    private static final FsyncPolicy FSYNC = FsyncPolicy.valueOf(
+            System.getProperty("kallitechnis.fsync", "always").toUpperCase(Locale.ROOT));
+    private static final Duration WRITE_BEHIND = Duration.ofSeconds(2);
+    private static final int SEARCH_LIMIT = 20;
+    private static final int PAGE_SIZE = 20;
+    private static final CsvRepository<TheaterPlay> theaterRepo = new CsvRepository<>("theater.csv",
+            TheaterPlayCodec.DESCRIPTOR, FSYNC, CsvRepository.DEFAULT_COMPACT_THRESHOLD);
+    private static final CsvRepository<MusicShow> musicRepo = new CsvRepository<>("music.csv",
+            MusicShowCodec.DESCRIPTOR, FSYNC, CsvRepository.DEFAULT_COMPACT_THRESHOLD);
+    private static final CsvRepository<Customer> customerRepo = new CsvRepository<>("customers.csv",
+            CustomerCodec.DESCRIPTOR, FSYNC, CsvRepository.DEFAULT_COMPACT_THRESHOLD);
+    private static final CsvRepository<Booking> bookingRepo = new CsvRepository<>("bookings.csv",
+            BookingCodec.DESCRIPTOR, new BookingColumnStore(), FSYNC, CsvRepository.DEFAULT_COMPACT_THRESHOLD);
+
+    /* ---------- Indexes ---------- */
+    private static final SecondaryIndex<Booking, Integer> bookingsByCustomer =
+            bookingRepo.addIndex("customer", Booking::getCustomerId);
+    private static final SecondaryIndex<Booking, Booking.EventKey> bookingsByEvent =
+            bookingRepo.addIndex("event", Booking::getEventKey);
+    private static final SortedIndex<TheaterPlay, LocalDate> theaterByDate =
+            theaterRepo.addSortedIndex("date", TheaterPlay::getDate);
+    private static final SortedIndex<MusicShow, LocalDate> musicByDate =
+            musicRepo.addSortedIndex("date", MusicShow::getDate);
+    private static final TextIndex<TheaterPlay> theaterText = theaterRepo.addTextIndex("text",
+            List.of(TheaterPlay::getTitle, TheaterPlay::getProtagonist, TheaterPlay::getVenue));
+    private static final TextIndex<MusicShow> musicText = musicRepo.addTextIndex("text",
+            List.of(MusicShow::getTitle, MusicShow::getSinger, MusicShow::getVenue));
+    private static final TextIndex<Customer> customerText = customerRepo.addTextIndex("text",
+            List.of(Customer::getName));
+
+    /* ---------- Stats ---------- */
+    private static final SeatCounters seats = new SeatCounters();
+    private static final BookingStats bookingStats = seats.stats();
+    static { bookingRepo.addListener(seats); }
+
+    /* ---------- Services ---------- */
+    private static final BookingService bookingService =
+            new BookingService(customerRepo, theaterRepo, musicRepo, bookingRepo, seats);
+
+    /* ---------- Main ---------- */
+    public static void main(String[] args) {
+        int batch = Arrays.asList(args).indexOf("--batch");
+        if (batch >= 0) { runBatch(batch + 1 < args.length ? args[batch + 1] : "-"); return; }
+        int imp = Arrays.asList(args).indexOf("--import");
+        if (imp >= 0 && imp + 2 < args.length) { runImport(args[imp + 1], Path.of(args[imp + 2])); return; }
+        int serve = Arrays.asList(args).indexOf("--serve");
+        if (serve >= 0) {
+            int cdc = Arrays.asList(args).indexOf("--cdc");
+            runServer(serve + 1 < args.length && !args[serve + 1].startsWith("--") ? Integer.parseInt(args[serve + 1]) : ApiServer.DEFAULT_PORT,
+                    cdc >= 0 && cdc + 1 < args.length ? args[cdc + 1] : null);
+            return;
+        }
+        load(Arrays.asList(args).contains("--lazy"));
+        loop();
+        save();
+        printlnBox(GREEN + "✔  Ευχαριστούμε που χρησιμοποιήσατε την εφαρμογή!  " + RESET);
+    }
+
+    /* ---------- Core ---------- */
+    /**
+     * Φορτώνει τα αποθετήρια παράλληλα πριν από το μενού ή, με {@code lazy}, τα δηλώνει για
+     * φόρτωση στην πρώτη πρόσβαση, ώστε το μενού να εμφανίζεται αμέσως.
+     */
+    private static void load(boolean lazy) {
+        if (lazy) {
+            theaterRepo.loadLazily(LoadMode.SEQUENTIAL); musicRepo.loadLazily(LoadMode.SEQUENTIAL);
+            customerRepo.loadLazily(LoadMode.SEQUENTIAL); bookingRepo.loadLazily(LoadMode.PARALLEL);
+        } else {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(theaterRepo::load),
+                    CompletableFuture.runAsync(musicRepo::load),
+                    CompletableFuture.runAsync(customerRepo::load),
+                    CompletableFuture.runAsync(() -> bookingRepo.load(LoadMode.PARALLEL))).join();
+        }
+        theaterRepo.writeBehind(WRITE_BEHIND); musicRepo.writeBehind(WRITE_BEHIND);
+        customerRepo.writeBehind(WRITE_BEHIND); bookingRepo.writeBehind(WRITE_BEHIND);
+    }
+    /** @return Η κωδικοποίηση της κονσόλας ή, χωρίς κονσόλα, η προεπιλεγμένη της JVM */
+    private static Charset consoleCharset() {
+        Console console = System.console();
+        return console != null ? console.charset() : Charset.defaultCharset();
+    }
+    /**
+     * Μη διαδραστική λειτουργία: εκτελεί τις εντολές του αρχείου ({@code -} για την τυπική
+     * είσοδο) με τα αποθετήρια φορτωμένα μία φορά και το compaction σε αναστολή, ώστε τα
+     * CSV να γραφτούν μία μόνο φορά στο τέλος. Βλ. {@link BatchProcessor}.
+     */
+    private static void runBatch(String file) {
+        load(false);
+        for (CsvRepository<?> repo : List.of(theaterRepo, musicRepo, customerRepo, bookingRepo)) repo.deferCompaction(true);
+        BatchProcessor processor = new BatchProcessor(theaterRepo, musicRepo, customerRepo, bookingService, bookingStats);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, consoleCharset()), 1 << 16);
+        BatchProcessor.Summary summary;
+        try (BufferedReader in = "-".equals(file)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            summary = processor.run(in, out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        long commitStart = System.nanoTime();
+        save();
+        double commitSeconds = (System.nanoTime() - commitStart) / 1e9;
+        System.out.printf("%d εντολές, %d απορρίφθηκαν · %.1f s εκτέλεση (%,.0f εντολές/s) + %.1f s εγγραφή%n",
+                summary.operations(), summary.failed(), summary.nanos() / 1e9, summary.throughput(), commitSeconds);
+    }
+
+    /**
+     * Μαζική εισαγωγή εξωτερικού CSV χωρίς στήλη κωδικού (οι κωδικοί δίνονται από το αποθετήριο):
+     * {@code customers} (όνομα), {@code theater}/{@code music} (τίτλος|καλλιτέχνης|χώρος|ημερομηνία)
+     * ή {@code bookings} (πελάτης|THEATER ή MUSIC|παράσταση). Βλ. {@link BulkImport}.
+     */
+    private static void runImport(String kind, Path file) {
+        load(false);
+        for (CsvRepository<?> repo : List.of(theaterRepo, musicRepo, customerRepo, bookingRepo)) repo.deferCompaction(true);
+        BulkImport.Report report = switch (kind) {
+            case "customers" -> new BulkImport<>(customerRepo, (id, f) -> new Customer(id, f.nextString()),
+                    c -> c.getName().isBlank() ? "Κενό όνομα" : null).run(file);
+            case "theater" -> new BulkImport<>(theaterRepo,
+                    (id, f) -> new TheaterPlay(id, f.nextString(), f.nextString(), f.nextString(), f.nextDate(),
+                            f.hasNext() ? f.nextInt() : 0),
+                    tp -> tp.getTitle().isBlank() ? "Κενός τίτλος" : null).run(file);
+            case "music" -> new BulkImport<>(musicRepo,
+                    (id, f) -> new MusicShow(id, f.nextString(), f.nextString(), f.nextString(), f.nextDate(),
+                            f.hasNext() ? f.nextInt() : 0),
+                    ms -> ms.getTitle().isBlank() ? "Κενός τίτλος" : null).run(file);
+            case "bookings" -> new BulkImport<>(bookingRepo,
+                    (id, f) -> new Booking(id, f.nextInt(), f.nextEnum(Booking.EventType.values()), f.nextInt()),
+                    Main::checkImportedBooking, customerRepo, theaterRepo, musicRepo).run(file);
+            default -> throw new IllegalArgumentException("Άγνωστος τύπος εισαγωγής: " + kind);
+        };
+        long commitStart = System.nanoTime();
+        save();
+        double commitSeconds = (System.nanoTime() - commitStart) / 1e9;
+        StringBuilder out = new StringBuilder(64 * (report.rejected().size() + 1));
+        for (BulkImport.Rejection r : report.rejected()) {
+            out.append("γραμμή ").append(r.line()).append(": ").append(r.reason()).append('\n');
+        }
+        System.out.print(out);
+        System.out.printf("%d εγγραφές, %d απορρίφθηκαν · %.1f s εισαγωγή (%,.0f γραμμές/s) + %.1f s εγγραφή%n",
+                report.accepted(), report.rejected().size(), report.nanos() / 1e9, report.throughput(), commitSeconds);
+    }
+
+    /**
+     * Έλεγχος μιας εισαγόμενης κράτησης: αναφορές και δέσμευση θέσης στους {@link SeatCounters},
+     * ώστε η εισαγωγή να μην ξεπερνά τη χωρητικότητα. Αν η γραμμή απορριφθεί σε επανέλεγχο,
+     * η θέση που είχε δεσμευτεί γι' αυτήν αποδεσμεύεται.
+     */
+    private static String checkImportedBooking(Booking b) {
+        String reason = customerRepo.findById(b.getCustomerId()).isEmpty() ? "Δεν υπάρχει πελάτης"
+                : !bookingService.eventExists(b.getEventType(), b.getEventId()) ? "Δεν υπάρχει παράσταση"
+                : !seats.reserve(b.getId(), b.getEventKey(), bookingService.capacity(b.getEventType(), b.getEventId()))
+                        ? "Η παράσταση είναι πλήρης" : null;
+        if (reason != null) seats.release(b.getEventKey(), b.getId());
+        return reason;
+    }
+
+    /**
+     * Λειτουργία server: εκθέτει τα αποθετήρια μέσω HTTP/JSON (βλ. {@link ApiServer}) μέχρι τον
+     * τερματισμό της διεργασίας (π.χ. Ctrl+C), οπότε ολοκληρώνονται οι εκκρεμείς κρατήσεις
+     * και γράφονται τα CSV.
+     *
+     * @param port Θύρα του HTTP API
+     * @param cdc Θύρα ή αρχείο για τη ροή μεταβολών προς αντίγραφα ανάγνωσης ({@link ChangeFeed}), ή {@code null}
+     */
+    private static void runServer(int port, String cdc) {
+        load(false);
+        /* ρυθμίσεις του HTTP server του JDK· διαβάζονται μία φορά ανά JVM, στον πρώτο server, και
+           όσες έχει ορίσει ο χρήστης με -D μένουν ως έχουν:
+           nodelay — χωρίς Nagle, αλλιώς κάθε απάντηση σε keep-alive σύνδεση περιμένει το delayed ACK (~40 ms)·
+           maxIdleConnections — keep-alive για όσους πελάτες χωρά η ουρά συνδέσεων, όχι μόνο για 200 */
+        System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+        System.getProperties().putIfAbsent("sun.net.httpserver.maxIdleConnections", String.valueOf(ApiServer.BACKLOG));
+        BookingPipeline pipeline = new BookingPipeline(customerRepo, theaterRepo, musicRepo, bookingRepo,
+                bookingService, seats, BookingPipeline.DEFAULT_CAPACITY);
+        ApiServer server = new ApiServer(new InetSocketAddress(port), theaterRepo, musicRepo, customerRepo, bookingRepo,
+                bookingStats, pipeline);
+        ChangeFeed feed = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY)
+                .add("theater", theaterRepo).add("music", musicRepo).add("customers", customerRepo).add("bookings", bookingRepo);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> { server.close(); pipeline.close(); feed.close(); save(); }));
+        server.start();
+        System.out.println("HTTP API στη θύρα " + server.port() + " · Ctrl+C για τερματισμό");
+        if (cdc == null) return;
+        if (cdc.chars().allMatch(Character::isDigit)) {
+            System.out.println("Ροή μεταβολών στη θύρα " + feed.listen(Integer.parseInt(cdc)));
+        } else {
+            feed.writeTo(Path.of(cdc));
+            System.out.println("Ροή μεταβολών στο " + cdc);
+        }
+    }
+
+    private static void save() { theaterRepo.close(); musicRepo.close(); customerRepo.close(); bookingRepo.close(); }
+
+    /* ---------- Main Loop ---------- */
+    private static void loop() {
+        while (true) {
+            clear();
+            printMenu();
+            switch (intChoice()) {
+                case 1  -> manageTheater();
+                case 2  -> manageMusic();
+                case 3  -> manageCustomers();
+                case 4  -> book(Booking.EventType.THEATER);
+                case 5  -> book(Booking.EventType.MUSIC);
+                case 6  -> stats();
+                case 7  -> search();
+                case 0  -> { return; }
+                default -> error("Άκυρη επιλογή");
+            }
+        }
+    }
+
+    /* ---------- UI Helpers ---------- */
+
+    /** Καθαρίζει την οθόνη (ANSI). */
+    private static void clear() {
+        System.out.print("\033[H\033[2J");
+        System.out.flush();
+    }
+
+    /** Εκτυπώνει το κεντρικό μενού σε «κουτί». */
+    private static void printMenu() {
+        box("ΔΙΑΧΕΙΡΙΣΗ ΚΑΛΛΙΤΕΧΝΙΚΩΝ",
+                "1. Θεατρικές παραστάσεις",
+                "2. Μουσικές παραστάσεις",
+                "3. Πελάτες",
+                "4. Κράτηση θεατρικής παράστασης",
+                "5. Κράτηση μουσικής παράστασης",
+                "6. Στατιστικά εισιτηρίων",
+                "7. Αναζήτηση",
+                "0. Έξοδος");
+        System.out.print(YELLOW + "➤ Επιλογή: " + RESET);
+    }
+
+    /** Υπο-μενού CRUD σε κουτί. */
+    private static void crudMenu(Runnable add, Runnable edit, Runnable del, Runnable list) {
+        box("ΥΠΟ-ΜΕΝΟΥ",
+                "a. Εισαγωγή",
+                "b. Διόρθωση",
+                "c. Διαγραφή",
+                "d. Λίστα",
+                "x. Επιστροφή");
+        System.out.print(YELLOW + "➤ Επιλογή: " + RESET);
+        switch (IN.nextLine().trim().toLowerCase()) {
+            case "a" -> add.run();
+            case "b" -> edit.run();
+            case "c" -> del.run();
+            case "d" -> list.run();
+            default  -> { /* back or unknown */ }
+        }
+    }
+
+    /** Εκτυπώνει κουτί με τίτλο & γραμμές. */
+    private static void box(String title, String... lines) {
+        System.out.print(appendBox(new StringBuilder(), title, Arrays.asList(lines)));
+        System.out.flush();
+    }
+
+    /** Αποδίδει κουτί σε buffer· το πλάτος υπολογίζεται μόνο από τις δοθείσες γραμμές. */
+    private static StringBuilder appendBox(StringBuilder out, String title, List<String> lines) {
+        int width = title.length();
+        for (String l : lines) width = Math.max(width, l.length());
+        width += 4;
+        String rule = "═".repeat(width);
+        out.append(CYAN).append('╔').append(rule).append('╗').append(RESET).append('\n');
+        out.append(CYAN).append('║').append(center(title, width)).append('║').append(RESET).append('\n');
+        out.append(CYAN).append('╠').append(rule).append('╣').append(RESET).append('\n');
+        for (String l : lines) out.append("║ ").append(pad(l, width - 2)).append("║\n");
+        return out.append(CYAN).append('╚').append(rule).append('╝').append(RESET).append('\n');
+    }
+
+    /** Πηγή σελίδων για τον {@link #pager}: έως {@code limit} στοιχεία από τη θέση {@code from}. */
+    @FunctionalInterface private interface PageSource { List<?> page(int from, int limit); }
+
+    /**
+     * Σελιδοποιημένη προβολή μιας λίστας: ζητά από την πηγή μόνο την τρέχουσα σελίδα και
+     * τη γράφει στην οθόνη με μία εγγραφή. {@code n}/{@code p} αλλάζουν σελίδα· οποιαδήποτε
+     * άλλη είσοδος (ή σκέτο Enter) τερματίζει την προβολή και επιστρέφεται στον καλούντα.
+     *
+     * @param title Τίτλος του κουτιού
+     * @param total Συνολικό πλήθος στοιχείων
+     * @param source Πηγή σελίδων
+     * @param prompt Υπόδειξη για την είσοδο τερματισμού
+     * @return Η είσοδος που τερμάτισε την προβολή (χωρίς κενά)
+     */
+    private static String pager(String title, int total, PageSource source, String prompt) {
+        int pages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        int page = 0;
+        while (true) {
+            List<?> items = source.page(page * PAGE_SIZE, PAGE_SIZE);
+            List<String> lines = new ArrayList<>(items.size());
+            for (Object item : items) lines.add(String.valueOf(item));
+            StringBuilder out = new StringBuilder(128 * (lines.size() + 6)).append("\033[H\033[2J");
+            appendBox(out, title + "  (" + (page + 1) + "/" + pages + ")", lines);
+            out.append(YELLOW).append("\n➤ n: επόμενη, p: προηγούμενη, ").append(prompt).append(": ").append(RESET);
+            System.out.print(out);
+            System.out.flush();
+            String in = IN.nextLine().trim();
+            switch (in.toLowerCase()) {
+                case "n" -> { if (page + 1 < pages) page++; }
+                case "p" -> { if (page > 0) page--; }
+                default  -> { return in; }
+            }
+        }
+    }
+
+    /** Σελιδοποιημένη λίστα όλων των εγγραφών ενός αποθετηρίου. */
+    private static void listAll(String title, CsvRepository<?> repo) {
+        pager(title, repo.count(), repo::findPage, "Enter: επιστροφή");
+    }
+
+    /** Κουτί ενός μόνο μηνύματος (π.χ. επιβεβαίωση). */
+    private static void printlnBox(String msg) {
+        int w = msg.length() + 2;
+        System.out.println("╔" + "═".repeat(w) + "╗");
+        System.out.println("║ " + msg + " ║");
+        System.out.println("╚" + "═".repeat(w) + "╝");
+    }
+
+    private static String center(String txt, int w) { int pad=(w - txt.length())/2; return " ".repeat(pad)+txt+" ".repeat(w-txt.length()-pad);}
+    private static String pad(String txt, int w)    { return txt + " ".repeat(Math.max(0, w - txt.length())); }
+    private static void pause() { System.out.print(YELLOW + "\nΠάτησε Enter για συνέχεια..." + RESET); IN.nextLine(); clear(); }
+
+    /* ---------- Managers ---------- */
+
+    private static void manageTheater()   { crudMenu(() -> theaterRepo.save(new TheaterPlay(
+                    theaterRepo.nextId(), ask("Τίτλος"), ask("Πρωταγωνιστής"), ask("Χώρος"), readDate(), readCapacity())),
+            () -> editEntity(theaterRepo,"Κωδικός", tp -> {
+                tp.setTitle(optional(ask("Νέος τίτλος"),tp.getTitle()));
+                tp.setProtagonist(optional(ask("Νέος πρωταγωνιστής"),tp.getProtagonist()));
+                tp.setVenue(optional(ask("Νέος χώρος"),tp.getVenue()));
+                tp.setDate(optionalDate(readDateOptional(),tp.getDate()));
+                tp.setCapacity(optionalInt(ask("Νέα χωρητικότητα"),tp.getCapacity()));}),
+            () -> deleteEvent(theaterRepo, Booking.EventType.THEATER),
+            () -> listAll("Θεατρικές παραστάσεις", theaterRepo)); }
+
+    private static void manageMusic()     { crudMenu(() -> musicRepo.save(new MusicShow(
+                    musicRepo.nextId(), ask("Τίτλος"), ask("Τραγουδιστής"), ask("Χώρος"), readDate(), readCapacity())),
+            () -> editEntity(musicRepo,"Κωδικός", ms -> {
+                ms.setTitle(optional(ask("Νέος τίτλος"),ms.getTitle()));
+                ms.setSinger(optional(ask("Νέος τραγουδιστής"),ms.getSinger()));
+                ms.setVenue(optional(ask("Νέος χώρος"),ms.getVenue()));
+                ms.setDate(optionalDate(readDateOptional(),ms.getDate()));
+                ms.setCapacity(optionalInt(ask("Νέα χωρητικότητα"),ms.getCapacity()));}),
+            () -> deleteEvent(musicRepo, Booking.EventType.MUSIC),
+            () -> listAll("Μουσικές παραστάσεις", musicRepo)); }
+
+    private static void manageCustomers() { crudMenu(() -> customerRepo.save(new Customer(customerRepo.nextId(), ask("Όνομα"))),
+            () -> editEntity(customerRepo,"Κωδικός", c -> c.setName(optional(ask("Νέο όνομα"),c.getName()))),
+            () -> deleteById(customerRepo,"Κωδικός"),
+            () -> pager("Πελάτες", customerRepo.count(), (from, limit) -> customerRepo.findPage(from, limit).stream()
+                    .map(c -> c + "  (" + bookingsByCustomer.count(c.getId()) + " κρατήσεις)").toList(), "Enter: επιστροφή")); }
+
+    /* ---------- Bookings ---------- */
+    private static void book(Booking.EventType type) {
+        int custId = intInput("Κωδικός πελάτη");
+        if (customerRepo.findById(custId).isEmpty()) { error("Δεν υπάρχει πελάτης"); return; }
+
+        LocalDate today = LocalDate.now();
+        List<?> upcoming = type == Booking.EventType.THEATER ? theaterByDate.atOrAfter(today) : musicByDate.atOrAfter(today);
+        if (upcoming.isEmpty()) { error("Δεν υπάρχουν επερχόμενες παραστάσεις"); return; }
+        int evId;
+        while (true) {
+            String choice = pager("Επερχόμενες παραστάσεις", upcoming.size(),
+                    (from, limit) -> upcoming.subList(Math.min(from, upcoming.size()), Math.min(from + limit, upcoming.size())),
+                    "ή κωδικός παράστασης");
+            if (choice.isEmpty()) choice = ask("Κωδικός παράστασης");
+            try { evId = Integer.parseInt(choice); break; }
+            catch (NumberFormatException e) { error("Μη έγκυρος κωδικός παράστασης"); pause(); }
+        }
+        try {
+            bookingService.book(custId, type, evId);
+            success("Η κράτηση ολοκληρώθηκε");
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+        }
+    }
+
+    /* ---------- Search ---------- */
+    private static void search() {
+        String q = ask("Αναζήτηση (τίτλος, καλλιτέχνης, χώρος ή όνομα)");
+        clear();
+        section("Θεατρικές παραστάσεις", theaterText.search(q, SEARCH_LIMIT));
+        section("Μουσικές παραστάσεις", musicText.search(q, SEARCH_LIMIT));
+        section("Πελάτες", customerText.search(q, SEARCH_LIMIT));
+        pause();
+    }
+
+    private static void section(String title, List<?> results) {
+        if (results.isEmpty()) return;
+        System.out.println(BOLD + title + ":" + RESET);
+        results.forEach(r -> System.out.println("  " + r));
+    }
+
+    /* ---------- Stats ---------- */
+    private static void stats() {
+        clear();
+        bookingRepo.ensureLoaded();   // τα στατιστικά χτίζονται κατά τη φόρτωση των κρατήσεων
+
+        /* Δημιουργούμε πλήρη πίνακα γραμμών για κάθε κατηγορία */
+        String[] theaterLines = java.util.stream.Stream.concat(
+                java.util.stream.Stream.of("Θεατρικές παραστάσεις:"),
+                theaterRepo.findAll().stream()
+                        .map(tp -> "  • " + tp.getTitle() + ": " +
+                                bookingStats.count(Booking.EventType.THEATER, tp.getId()) + seatsOf(tp.getCapacity()))
+        ).toArray(String[]::new);
+
+        String[] musicLines = java.util.stream.Stream.concat(
+                java.util.stream.Stream.of("Μουσικές παραστάσεις:"),
+                musicRepo.findAll().stream()
+                        .map(ms -> "  • " + ms.getTitle() + ": " +
+                                bookingStats.count(Booking.EventType.MUSIC, ms.getId()) + seatsOf(ms.getCapacity()))
+        ).toArray(String[]::new);
+
+        /* Εμφάνιση σε δύο κουτιά */
+        box("ΣΤΑΤΙΣΤΙΚΑ", theaterLines);
+        box(" ",           musicLines);   // αφήνουμε κενό τίτλο για να κρατήσουμε το ίδιο πλάτος
+        pause();
+    }
+
+    private static String seatsOf(int capacity) { return capacity > 0 ? " / " + capacity : ""; }
+
+
+    /* ---------- Generic Helpers ---------- */
+    @FunctionalInterface private interface Editor<T> { void apply(T t); }
+
+    private static <T extends Identifiable> void editEntity(CsvRepository<T> repo, String prompt, Editor<T> ed) {
+        int id = intInput(prompt);
+        /* οι αλλαγές γίνονται σε αντίγραφο· όσοι διαβάζουν το τρέχον (π.χ. ο server) δεν τις βλέπουν μισές */
+        repo.findById(id).map(repo::copyOf).ifPresentOrElse(t -> { ed.apply(t); repo.save(t); success("Η ενημέρωση ολοκληρώθηκε"); },
+                () -> error("Δεν βρέθηκε"));
+    }
+    private static void deleteById(CsvRepository<?> repo,String prompt){ repo.delete(intInput(prompt)); success("Η διαγραφή ολοκληρώθηκε"); }
+    /** Διαγραφή παράστασης· αν έχει κρατήσεις (από το ευρετήριο, χωρίς σάρωση), ζητά επιβεβαίωση. */
+    private static void deleteEvent(CsvRepository<?> repo, Booking.EventType type) {
+        int id = intInput("Κωδικός");
+        int booked = bookingsByEvent.count(new Booking.EventKey(type, id));
+        if (booked > 0 && !ask("Η παράσταση έχει " + booked + " κρατήσεις· διαγραφή; (ν/ο)").equalsIgnoreCase("ν")) return;
+        repo.delete(id); success("Η διαγραφή ολοκληρώθηκε");
+    }
+
+    private static int  intChoice(){ try{ return Integer.parseInt(IN.nextLine().trim()); } catch(Exception e){ return -1; } }
+    private static int  intInput (String prompt){ return Integer.parseInt(ask(prompt)); }
+    private static String ask(String p){ System.out.print(YELLOW + p + ": " + RESET); return IN.nextLine().trim(); }
+
+    private static LocalDate readDate(){
+        while(true){ String s=ask("Ημερομηνία (YYYY-MM-DD)");
+            try{ return LocalDate.parse(s); } catch(Exception e){ error("Μη έγκυρη ημερομηνία"); } }
+    }
+    private static LocalDate readDateOptional(){ String s=IN.nextLine().trim(); return s.isBlank()?null:LocalDate.parse(s); }
+    private static LocalDate optionalDate(LocalDate v,LocalDate def){ return v==null?def:v; }
+    private static String     optional    (String v,String def){ return v.isBlank()?def:v; }
+    private static int        optionalInt (String v,int def)   { return v.isBlank()?def:Integer.parseInt(v); }
+    private static int readCapacity(){ return optionalInt(ask("Χωρητικότητα (κενό = χωρίς όριο)"), 0); }
+
+    /* ---------- Feedback ---------- */
+    private static void error  (String msg){ printlnBox(RED   + "✖ " + msg + RESET); }
+    private static void success(String msg){ printlnBox(GREEN + "✔ " + msg + RESET); }
+}
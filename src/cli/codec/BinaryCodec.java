@@ -0,0 +1,25 @@
+package cli.codec;
+
+/**
+ * Μετατροπή αντικειμένων από/προς τη δυαδική μορφή snapshot (βλ. {@link SnapshotWriter}).
+ *
+ * @param <T> Ο τύπος των αντικειμένων
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * Γράφει το αντικείμενο στο snapshot.
+     *
+     * @param t Το αντικείμενο
+     * @param out Ο writer του snapshot
+     */
+    void write(T t, SnapshotWriter out);
+
+    /**
+     * Διαβάζει το επόμενο αντικείμενο από το snapshot.
+     *
+     * @param in Ο reader του snapshot
+     * @return Νέο αντικείμενο
+     */
+    T read(SnapshotReader in);
+}
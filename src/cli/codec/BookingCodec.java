@@ -0,0 +1,46 @@
+package cli.codec;
+
+import cli.entity.Booking;
+
+/**
+ * Codec της εγγραφής {@code id|customerId|eventType|eventId} (CSV και δυαδικό snapshot) για {@link Booking}.
+ */
+public final class BookingCodec implements RecordCodec<Booking>, BinaryCodec<Booking> {
+
+    /** Το μοναδικό (stateless) στιγμιότυπο. */
+    public static final BookingCodec INSTANCE = new BookingCodec();
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο. */
+    public static final EntityDescriptor<Booking> DESCRIPTOR = EntityDescriptor.of("booking", INSTANCE);
+
+    private static final Booking.EventType[] TYPES = Booking.EventType.values();
+
+    private BookingCodec() { }
+
+    @Override
+    public Booking decode(CharSequence s, int from, int to) {
+        FieldReader r = new FieldReader(s, from, to);
+        return new Booking(r.nextInt(), r.nextInt(), r.nextEnum(TYPES), r.nextInt());
+    }
+
+    @Override
+    public void encode(Booking b, StringBuilder out) {
+        FieldWriter.appendInt(out, b.getId()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendInt(out, b.getCustomerId()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendEnum(out, b.getEventType()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendInt(out, b.getEventId());
+    }
+
+    @Override
+    public void write(Booking b, SnapshotWriter out) {
+        out.writeInt(b.getId());
+        out.writeInt(b.getCustomerId());
+        out.writeEnum(b.getEventType());
+        out.writeInt(b.getEventId());
+    }
+
+    @Override
+    public Booking read(SnapshotReader in) {
+        return new Booking(in.readInt(), in.readInt(), in.readEnum(TYPES), in.readInt());
+    }
+}
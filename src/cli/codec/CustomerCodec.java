@@ -0,0 +1,40 @@
+package cli.codec;
+
+import cli.entity.Customer;
+
+/**
+ * Codec της εγγραφής {@code id|name} (CSV και δυαδικό snapshot) για {@link Customer}.
+ */
+public final class CustomerCodec implements RecordCodec<Customer>, BinaryCodec<Customer> {
+
+    /** Το μοναδικό (stateless) στιγμιότυπο. */
+    public static final CustomerCodec INSTANCE = new CustomerCodec();
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο. */
+    public static final EntityDescriptor<Customer> DESCRIPTOR = EntityDescriptor.of("customer", INSTANCE);
+
+    private CustomerCodec() { }
+
+    @Override
+    public Customer decode(CharSequence s, int from, int to) {
+        FieldReader r = new FieldReader(s, from, to);
+        return new Customer(r.nextInt(), r.nextString());
+    }
+
+    @Override
+    public void encode(Customer c, StringBuilder out) {
+        FieldWriter.appendInt(out, c.getId()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, c.getName());
+    }
+
+    @Override
+    public void write(Customer c, SnapshotWriter out) {
+        out.writeInt(c.getId());
+        out.writeString(c.getName());
+    }
+
+    @Override
+    public Customer read(SnapshotReader in) {
+        return new Customer(in.readInt(), in.readString());
+    }
+}
@@ -0,0 +1,26 @@
+package cli.codec;
+
+import cli.entity.Identifiable;
+
+/**
+ * Μεταδεδομένα μιας οντότητας για το αποθετήριο: όνομα και codec της εγγραφής.
+ * <p>Ο κωδικός διαβάζεται απευθείας μέσω {@link Identifiable#getId()}, χωρίς reflection.</p>
+ *
+ * @param name Όνομα της οντότητας
+ * @param codec Codec μετατροπής από/προς γραμμή CSV
+ * @param <T> Ο τύπος της οντότητας
+ */
+public record EntityDescriptor<T extends Identifiable>(String name, RecordCodec<T> codec) {
+
+    /**
+     * Δημιουργεί νέο descriptor.
+     *
+     * @param name Όνομα της οντότητας
+     * @param codec Codec μετατροπής από/προς γραμμή CSV
+     * @param <T> Ο τύπος της οντότητας
+     * @return Νέος descriptor
+     */
+    public static <T extends Identifiable> EntityDescriptor<T> of(String name, RecordCodec<T> codec) {
+        return new EntityDescriptor<>(name, codec);
+    }
+}
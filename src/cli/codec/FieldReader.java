@@ -0,0 +1,164 @@
+package cli.codec;
+
+import java.time.LocalDate;
+
+/**
+ * Δρομέας ανάγνωσης πεδίων από ένα εύρος χαρακτήρων μιας εγγραφής CSV.
+ * <p>Οι ακέραιοι, οι ημερομηνίες και τα enums αναλύονται επί τόπου χωρίς ενδιάμεσα
+ * {@code String}. Ο χαρακτήρας {@code \} αποτελεί escape: {@code \|} για το {@code |},
+ * {@code \\} για το {@code \}, {@code \n}/{@code \r} για αλλαγές γραμμής.</p>
+ */
+public final class FieldReader {
+
+    private final CharSequence s;
+    private final int end;
+    private int pos;
+
+    /**
+     * @param s Ακολουθία χαρακτήρων
+     * @param from Αρχή της εγγραφής (inclusive)
+     * @param to Τέλος της εγγραφής (exclusive)
+     */
+    public FieldReader(CharSequence s, int from, int to) {
+        this.s = s;
+        this.pos = from;
+        this.end = to;
+    }
+
+    /**
+     * Ελέγχει αν απομένουν πεδία προς ανάγνωση.
+     *
+     * @return {@code true} αν υπάρχει επόμενο πεδίο
+     */
+    public boolean hasNext() {
+        return pos <= end;
+    }
+
+    /**
+     * Διαβάζει το επόμενο πεδίο ως ακέραιο.
+     *
+     * @return Η τιμή του πεδίου
+     * @throws IllegalArgumentException αν το πεδίο δεν είναι ακέραιος
+     */
+    public int nextInt() {
+        int i = pos;
+        boolean neg = i < end && s.charAt(i) == '-';
+        if (neg) i++;
+        if (i >= end || s.charAt(i) == FieldWriter.SEPARATOR) throw malformed("ακέραιος");
+        long v = 0;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == FieldWriter.SEPARATOR) break;
+            if (c < '0' || c > '9') throw malformed("ακέραιος");
+            v = v * 10 + (c - '0');
+            if (v > (long) Integer.MAX_VALUE + 1) throw malformed("ακέραιος");
+        }
+        v = neg ? -v : v;
+        if (v > Integer.MAX_VALUE) throw malformed("ακέραιος");
+        pos = i + 1;
+        return (int) v;
+    }
+
+    /**
+     * Διαβάζει το επόμενο πεδίο ως ημερομηνία ISO ({@code YYYY-MM-DD}).
+     *
+     * @return Η ημερομηνία
+     */
+    public LocalDate nextDate() {
+        int stop = fieldEnd();
+        int i = pos;
+        LocalDate d;
+        if (stop - i == 10 && s.charAt(i + 4) == '-' && s.charAt(i + 7) == '-') {
+            d = LocalDate.of(digits(i, 4), digits(i + 5, 2), digits(i + 8, 2));
+        } else {
+            d = LocalDate.parse(s.subSequence(i, stop));
+        }
+        pos = stop + 1;
+        return d;
+    }
+
+    /**
+     * Διαβάζει το επόμενο πεδίο ως σταθερά enum, συγκρίνοντας απευθείας με τα ονόματα.
+     *
+     * @param values Οι σταθερές του enum ({@code E.values()})
+     * @param <E> Τύπος enum
+     * @return Η σταθερά με το ίδιο όνομα
+     */
+    public <E extends Enum<E>> E nextEnum(E[] values) {
+        int stop = fieldEnd();
+        int len = stop - pos;
+        for (E e : values) {
+            String name = e.name();
+            if (name.length() != len) continue;
+            int k = 0;
+            while (k < len && name.charAt(k) == s.charAt(pos + k)) k++;
+            if (k == len) { pos = stop + 1; return e; }
+        }
+        throw malformed("enum");
+    }
+
+    /**
+     * Διαβάζει το επόμενο πεδίο ως κείμενο, αφαιρώντας τα escapes.
+     *
+     * @return Το κείμενο του πεδίου
+     */
+    public String nextString() {
+        if (pos > end) throw missing();
+        int i = pos;
+        StringBuilder sb = null;
+        int runStart = i;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == FieldWriter.SEPARATOR) break;
+            if (c == FieldWriter.ESCAPE && i + 1 < end) {
+                if (sb == null) sb = new StringBuilder(end - pos);
+                sb.append(s, runStart, i);
+                char n = s.charAt(++i);
+                sb.append(n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+                runStart = i + 1;
+            }
+        }
+        String v;
+        if (sb == null) v = s instanceof String str ? str.substring(pos, i) : s.subSequence(pos, i).toString();
+        else v = sb.append(s, runStart, i).toString();
+        pos = i + 1;
+        return v;
+    }
+
+    /**
+     * Διαβάζει το επόμενο πεδίο ως κείμενο που αναμένεται να επαναλαμβάνεται και
+     * επιστρέφει το κοινό του στιγμιότυπο από το λεξικό.
+     *
+     * @param dictionary Λεξικό κανονικοποίησης
+     * @return Το κείμενο του πεδίου
+     */
+    public String nextString(StringDictionary dictionary) {
+        return dictionary.canonical(nextString());
+    }
+
+    /** Τέλος του τρέχοντος πεδίου (χωρίς escapes, όπως σε αριθμούς/ημερομηνίες/enums). */
+    private int fieldEnd() {
+        if (pos > end) throw missing();
+        int i = pos;
+        while (i < end && s.charAt(i) != FieldWriter.SEPARATOR) i++;
+        return i;
+    }
+
+    private int digits(int from, int n) {
+        int v = 0;
+        for (int i = from; i < from + n; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') throw malformed("ημερομηνία");
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private IllegalArgumentException missing() {
+        return new IllegalArgumentException("Λείπουν πεδία: " + s);
+    }
+
+    private IllegalArgumentException malformed(String what) {
+        return new IllegalArgumentException("Μη έγκυρο πεδίο (" + what + ") στη θέση " + pos + ": " + s);
+    }
+}
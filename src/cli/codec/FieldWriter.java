@@ -0,0 +1,79 @@
+package cli.codec;
+
+import java.time.LocalDate;
+
+/**
+ * Βοηθητικές μέθοδοι εγγραφής πεδίων μιας εγγραφής CSV σε {@link StringBuilder}.
+ * <p>Τα πεδία κειμένου γράφονται με escape για τους χαρακτήρες {@code |}, {@code \}
+ * και τις αλλαγές γραμμής, ώστε οι τίτλοι και τα ονόματα να μην αλλοιώνουν τη δομή
+ * του αρχείου. Βλ. {@link FieldReader}.</p>
+ */
+public final class FieldWriter {
+
+    /** Διαχωριστικό πεδίων. */
+    public static final char SEPARATOR = '|';
+
+    /** Χαρακτήρας escape. */
+    public static final char ESCAPE = '\\';
+
+    private FieldWriter() { }
+
+    /**
+     * Γράφει ακέραιο πεδίο.
+     *
+     * @param out Buffer εξόδου
+     * @param v Τιμή
+     * @return Ο ίδιος buffer
+     */
+    public static StringBuilder appendInt(StringBuilder out, int v) {
+        return out.append(v);
+    }
+
+    /**
+     * Γράφει πεδίο κειμένου με escape των ειδικών χαρακτήρων.
+     *
+     * @param out Buffer εξόδου
+     * @param v Κείμενο ({@code null} γράφεται ως κενό)
+     * @return Ο ίδιος buffer
+     */
+    public static StringBuilder appendString(StringBuilder out, String v) {
+        if (v == null) return out;
+        int run = 0;
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c != SEPARATOR && c != ESCAPE && c != '\n' && c != '\r') continue;
+            out.append(v, run, i).append(ESCAPE).append(c == '\n' ? 'n' : c == '\r' ? 'r' : c);
+            run = i + 1;
+        }
+        return out.append(v, run, v.length());
+    }
+
+    /**
+     * Γράφει ημερομηνία σε μορφή ISO ({@code YYYY-MM-DD}).
+     *
+     * @param out Buffer εξόδου
+     * @param d Ημερομηνία
+     * @return Ο ίδιος buffer
+     */
+    public static StringBuilder appendDate(StringBuilder out, LocalDate d) {
+        int y = d.getYear();
+        if (y < 0 || y > 9999) return out.append(d);
+        twoDigits(twoDigits(out, y / 100), y % 100).append('-');
+        return twoDigits(twoDigits(out, d.getMonthValue()).append('-'), d.getDayOfMonth());
+    }
+
+    /**
+     * Γράφει το όνομα μιας σταθεράς enum.
+     *
+     * @param out Buffer εξόδου
+     * @param e Σταθερά
+     * @return Ο ίδιος buffer
+     */
+    public static StringBuilder appendEnum(StringBuilder out, Enum<?> e) {
+        return out.append(e.name());
+    }
+
+    private static StringBuilder twoDigits(StringBuilder out, int v) {
+        return out.append((char) ('0' + v / 10)).append((char) ('0' + v % 10));
+    }
+}
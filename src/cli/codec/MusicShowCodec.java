@@ -0,0 +1,54 @@
+package cli.codec;
+
+import cli.entity.MusicShow;
+
+/**
+ * Codec της εγγραφής {@code id|title|singer|venue|date[|capacity]} (CSV και δυαδικό snapshot) για {@link MusicShow}.
+ */
+public final class MusicShowCodec implements RecordCodec<MusicShow>, BinaryCodec<MusicShow> {
+
+    /** Το μοναδικό (stateless) στιγμιότυπο. */
+    public static final MusicShowCodec INSTANCE = new MusicShowCodec();
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο. */
+    public static final EntityDescriptor<MusicShow> DESCRIPTOR = EntityDescriptor.of("music", INSTANCE);
+
+    /** Οι τραγουδιστές και οι χώροι επαναλαμβάνονται· κρατιέται ένα στιγμιότυπο ανά τιμή. */
+    private static final StringDictionary VALUES = StringDictionary.SHARED;
+
+    private MusicShowCodec() { }
+
+    @Override
+    public MusicShow decode(CharSequence s, int from, int to) {
+        FieldReader r = new FieldReader(s, from, to);
+        return new MusicShow(r.nextInt(), r.nextString(), r.nextString(VALUES), r.nextString(VALUES), r.nextDate(),
+                r.hasNext() ? r.nextInt() : 0);
+    }
+
+    @Override
+    public void encode(MusicShow t, StringBuilder out) {
+        FieldWriter.appendInt(out, t.getId()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, t.getTitle()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, t.getSinger()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, t.getVenue()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendDate(out, t.getDate());
+        /* χωρίς όριο θέσεων η εγγραφή μένει ίδια με την παλιά μορφή */
+        if (t.getCapacity() > 0) FieldWriter.appendInt(out.append(FieldWriter.SEPARATOR), t.getCapacity());
+    }
+
+    @Override
+    public void write(MusicShow t, SnapshotWriter out) {
+        out.writeInt(t.getId());
+        out.writeString(t.getTitle());
+        out.writeDictString(t.getSinger());
+        out.writeDictString(t.getVenue());
+        out.writeDate(t.getDate());
+        out.writeInt(t.getCapacity());
+    }
+
+    @Override
+    public MusicShow read(SnapshotReader in) {
+        return new MusicShow(in.readInt(), in.readString(), in.readDictString(), in.readDictString(), in.readDate(),
+                in.readInt());
+    }
+}
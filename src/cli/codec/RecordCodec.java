@@ -0,0 +1,69 @@
+package cli.codec;
+
+import java.util.function.Function;
+
+/**
+ * Μετατροπή αντικειμένων από/προς μία γραμμή του αρχείου CSV (πεδία χωρισμένα με {@code |}).
+ * <p>Οι υλοποιήσεις διαβάζουν τα πεδία απευθείας από ένα εύρος χαρακτήρων μέσω
+ * {@link FieldReader} και γράφουν σε επαναχρησιμοποιούμενο {@link StringBuilder} μέσω
+ * {@link FieldWriter}, χωρίς regex και ενδιάμεσους πίνακες.</p>
+ *
+ * @param <T> Ο τύπος των αντικειμένων
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Αναλύει μία εγγραφή από το εύρος {@code [from, to)} της ακολουθίας χαρακτήρων.
+     *
+     * @param s Ακολουθία χαρακτήρων
+     * @param from Αρχή της εγγραφής (inclusive)
+     * @param to Τέλος της εγγραφής (exclusive)
+     * @return Νέο αντικείμενο
+     */
+    T decode(CharSequence s, int from, int to);
+
+    /**
+     * Γράφει την εγγραφή του αντικειμένου (χωρίς αλλαγή γραμμής) στο τέλος του buffer.
+     *
+     * @param t Το αντικείμενο
+     * @param out Buffer εξόδου
+     */
+    void encode(T t, StringBuilder out);
+
+    /**
+     * Αναλύει ολόκληρη τη συμβολοσειρά ως μία εγγραφή.
+     *
+     * @param s Γραμμή CSV
+     * @return Νέο αντικείμενο
+     */
+    default T decode(CharSequence s) {
+        return decode(s, 0, s.length());
+    }
+
+    /**
+     * Επιστρέφει την εγγραφή του αντικειμένου ως συμβολοσειρά.
+     *
+     * @param t Το αντικείμενο
+     * @return Γραμμή CSV
+     */
+    default String encode(T t) {
+        StringBuilder sb = new StringBuilder(64);
+        encode(t, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Προσαρμόζει ένα ζεύγος συναρτήσεων parser/serializer σε {@code RecordCodec}.
+     *
+     * @param parser Συνάρτηση μετατροπής γραμμής σε αντικείμενο
+     * @param serializer Συνάρτηση μετατροπής αντικειμένου σε γραμμή
+     * @param <T> Ο τύπος των αντικειμένων
+     * @return Codec που καλεί τις δοθείσες συναρτήσεις
+     */
+    static <T> RecordCodec<T> of(Function<String, T> parser, Function<T, String> serializer) {
+        return new RecordCodec<>() {
+            @Override public T decode(CharSequence s, int from, int to) { return parser.apply(s.subSequence(from, to).toString()); }
+            @Override public void encode(T t, StringBuilder out)      { out.append(serializer.apply(t)); }
+        };
+    }
+}
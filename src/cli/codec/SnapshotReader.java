@@ -0,0 +1,105 @@
+package cli.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Αναγνώστης της δυαδικής μορφής snapshot (βλ. {@link SnapshotWriter}) πάνω σε
+ * {@link ByteBuffer}, συνήθως memory-mapped.
+ * <p>Οι τιμές του λεξικού του snapshot περνούν από το {@link StringDictionary#SHARED}, ώστε
+ * να μοιράζονται με τις ίσες τιμές που διαβάζονται από CSV ή journal.</p>
+ * <p>Μήκος και CRC32 ελέγχονται πριν από την αποκωδικοποίηση, και κάθε πλήθος, μήκος ή
+ * δείκτης ελέγχεται ως προς τα όρια του· ένα αλλοιωμένο snapshot προκαλεί πάντα
+ * {@link IllegalStateException}.</p>
+ */
+public final class SnapshotReader {
+
+    private final ByteBuffer in;
+    private final String[] dictionary;
+    private final int count;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Διαβάζει το header και το λεξικό του snapshot.
+     *
+     * @param in Τα bytes του snapshot
+     * @throws IllegalStateException αν το magic ή η έκδοση δεν αναγνωρίζονται ή το μήκος
+     *         ή το CRC32 δεν ταιριάζουν
+     */
+    public SnapshotReader(ByteBuffer in) {
+        this.in = in;
+        if (in.remaining() < SnapshotWriter.HEADER || in.getInt() != SnapshotWriter.MAGIC
+                || in.getInt() != SnapshotWriter.VERSION) {
+            throw new IllegalStateException("Μη υποστηριζόμενο snapshot");
+        }
+        int length = in.getInt(), crc = in.getInt();
+        if (length != in.remaining()) throw corrupt();
+        CRC32 check = new CRC32();
+        check.update(in.duplicate());
+        if ((int) check.getValue() != crc) throw corrupt();
+        /* κάθε εγγραφή και κάθε λήμμα του λεξικού έχει τουλάχιστον ένα byte */
+        count = bounded(readVar(), in.remaining());
+        dictionary = new String[bounded(readVar(), in.remaining())];
+        for (int i = 0; i < dictionary.length; i++) dictionary[i] = StringDictionary.SHARED.canonical(readString());
+    }
+
+    /** @return Πλήθος εγγραφών του snapshot */
+    public int count() {
+        return count;
+    }
+
+    /** @return Ο επόμενος ακέραιος (zigzag varint) */
+    public int readInt() {
+        int v = readVar();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** @return Η επόμενη ημερομηνία (epoch-day) */
+    public LocalDate readDate() {
+        return LocalDate.ofEpochDay(readInt());
+    }
+
+    /**
+     * @param values Οι σταθερές του enum ({@code E.values()})
+     * @param <E> Τύπος enum
+     * @return Η επόμενη σταθερά enum
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        return values[bounded(readVar(), values.length - 1)];
+    }
+
+    /** @return Το επόμενο κείμενο (UTF-8 με πρόθεμα μήκους) */
+    public String readString() {
+        int n = bounded(readVar(), in.remaining());
+        if (n > scratch.length) scratch = new byte[Math.max(n, scratch.length * 2)];
+        in.get(scratch, 0, n);
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /** @return Το επόμενο κείμενο από το λεξικό (κοινό στιγμιότυπο για ίσες τιμές) */
+    public String readDictString() {
+        return dictionary[bounded(readVar(), dictionary.length - 1)];
+    }
+
+    private int readVar() {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw corrupt();
+    }
+
+    /** Ελέγχει ότι {@code 0 <= v <= max}. */
+    private int bounded(int v, int max) {
+        if (v < 0 || v > max) throw corrupt();
+        return v;
+    }
+
+    private IllegalStateException corrupt() {
+        return new IllegalStateException("Αλλοιωμένο snapshot στη θέση " + in.position());
+    }
+}
@@ -0,0 +1,139 @@
+package cli.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Συγγραφέας της δυαδικής μορφής snapshot ενός αποθετηρίου.
+ * <p>Μορφή αρχείου (έκδοση {@value #VERSION}):</p>
+ * <pre>
+ * "KTSN" | version:int32 | length:int32 | crc32:int32 | count:varint | dictSize:varint | dict: (len:varint utf8)* | records
+ * </pre>
+ * <p>Τα {@code length} και {@code crc32} αφορούν όλα τα bytes μετά το header, ώστε ένα
+ * κομμένο ή αλλοιωμένο αρχείο να απορρίπτεται πριν από την αποκωδικοποίηση.</p>
+ * <p>Οι ακέραιοι γράφονται ως zigzag varints, οι ημερομηνίες ως epoch-day, τα enums ως
+ * ordinal και τα κείμενα ως UTF-8 με πρόθεμα μήκους. Τα κείμενα που επαναλαμβάνονται
+ * (π.χ. χώροι) γράφονται μία φορά στο λεξικό και στις εγγραφές μόνο ως δείκτης.</p>
+ */
+public final class SnapshotWriter {
+
+    /** Magic αριθμός της μορφής ({@code "KTSN"}). */
+    public static final int MAGIC = 0x4B54534E;
+
+    /** Τρέχουσα έκδοση της μορφής (2: χωρητικότητα παραστάσεων, 3: μήκος και CRC32). */
+    public static final int VERSION = 3;
+
+    /** Μέγεθος του header σε bytes. */
+    public static final int HEADER = 16;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> entries = new ArrayList<>();
+    private byte[] buf = new byte[1 << 12];
+    private int len;
+    private int count;
+
+    /**
+     * Σηματοδοτεί το τέλος μιας εγγραφής.
+     */
+    public void endRecord() {
+        count++;
+    }
+
+    /**
+     * Γράφει ακέραιο ως zigzag varint.
+     *
+     * @param v Τιμή
+     */
+    public void writeInt(int v) {
+        writeVar(buf(5), (v << 1) ^ (v >> 31));
+    }
+
+    /**
+     * Γράφει ημερομηνία ως epoch-day.
+     *
+     * @param d Ημερομηνία
+     */
+    public void writeDate(LocalDate d) {
+        writeInt((int) d.toEpochDay());
+    }
+
+    /**
+     * Γράφει σταθερά enum ως ordinal.
+     *
+     * @param e Σταθερά
+     */
+    public void writeEnum(Enum<?> e) {
+        writeVar(buf(5), e.ordinal());
+    }
+
+    /**
+     * Γράφει κείμενο ως UTF-8 με πρόθεμα μήκους.
+     *
+     * @param s Κείμενο
+     */
+    public void writeString(String s) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        writeVar(buf(5 + b.length), b.length);
+        System.arraycopy(b, 0, buf, len, b.length);
+        len += b.length;
+    }
+
+    /**
+     * Γράφει κείμενο που αναμένεται να επαναλαμβάνεται, μέσω του λεξικού.
+     *
+     * @param s Κείμενο
+     */
+    public void writeDictString(String s) {
+        String key = s == null ? "" : s;
+        Integer idx = dictionary.get(key);
+        if (idx == null) {
+            idx = entries.size();
+            dictionary.put(key, idx);
+            entries.add(key);
+        }
+        writeVar(buf(5), idx);
+    }
+
+    /**
+     * Γράφει ολόκληρο το snapshot (header, λεξικό και εγγραφές).
+     *
+     * @param out Ροή εξόδου
+     * @throws IOException σε σφάλμα εγγραφής
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        SnapshotWriter head = new SnapshotWriter();
+        head.writeVar(head.buf(5), count);
+        head.writeVar(head.buf(5), entries.size());
+        for (String e : entries) head.writeString(e);
+        CRC32 crc = new CRC32();
+        crc.update(head.buf, 0, head.len);
+        crc.update(buf, 0, len);
+        out.write(ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION)
+                .putInt(Math.addExact(head.len, len)).putInt((int) crc.getValue()).array());
+        out.write(head.buf, 0, head.len);
+        out.write(buf, 0, len);
+    }
+
+    private int buf(int need) {
+        if (len + need > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + need));
+        return len;
+    }
+
+    private void writeVar(int at, int v) {
+        while ((v & ~0x7F) != 0) {
+            buf[at++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[at++] = (byte) v;
+        len = at;
+    }
+}
@@ -0,0 +1,46 @@
+package cli.codec;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Λεξικό κανονικοποίησης τιμών κειμένου που επαναλαμβάνονται (χώροι, πρωταγωνιστές,
+ * τραγουδιστές): ίσες τιμές που διαβάζονται από CSV, journal ή snapshot μοιράζονται
+ * ένα μόνο στιγμιότυπο {@code String}.
+ * <p>Είναι ασφαλές για πολλά νήματα (π.χ. {@link cli.repository.LoadMode#PARALLEL}) και έχει
+ * ανώτατο πλήθος τιμών· πέρα από αυτό οι νέες τιμές επιστρέφονται ως έχουν.</p>
+ */
+public final class StringDictionary {
+
+    /** Κοινό λεξικό όλων των codecs της εφαρμογής. */
+    public static final StringDictionary SHARED = new StringDictionary(1 << 16);
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    /**
+     * @param capacity Μέγιστο πλήθος διαφορετικών τιμών
+     */
+    public StringDictionary(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Επιστρέφει το κοινό στιγμιότυπο της τιμής.
+     *
+     * @param s Τιμή (ή {@code null})
+     * @return Ίσο κείμενο, κοινό για όλες τις ίσες τιμές που πέρασαν από το λεξικό
+     */
+    public String canonical(String s) {
+        if (s == null) return null;
+        String c = values.get(s);
+        if (c != null) return c;
+        if (values.size() >= capacity) return s;
+        c = values.putIfAbsent(s, s);
+        return c == null ? s : c;
+    }
+
+    /** @return Πλήθος διαφορετικών τιμών στο λεξικό */
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,54 @@
+package cli.codec;
+
+import cli.entity.TheaterPlay;
+
+/**
+ * Codec της εγγραφής {@code id|title|protagonist|venue|date[|capacity]} (CSV και δυαδικό snapshot) για {@link TheaterPlay}.
+ */
+public final class TheaterPlayCodec implements RecordCodec<TheaterPlay>, BinaryCodec<TheaterPlay> {
+
+    /** Το μοναδικό (stateless) στιγμιότυπο. */
+    public static final TheaterPlayCodec INSTANCE = new TheaterPlayCodec();
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο. */
+    public static final EntityDescriptor<TheaterPlay> DESCRIPTOR = EntityDescriptor.of("theater", INSTANCE);
+
+    /** Οι πρωταγωνιστές και οι χώροι επαναλαμβάνονται· κρατιέται ένα στιγμιότυπο ανά τιμή. */
+    private static final StringDictionary VALUES = StringDictionary.SHARED;
+
+    private TheaterPlayCodec() { }
+
+    @Override
+    public TheaterPlay decode(CharSequence s, int from, int to) {
+        FieldReader r = new FieldReader(s, from, to);
+        return new TheaterPlay(r.nextInt(), r.nextString(), r.nextString(VALUES), r.nextString(VALUES), r.nextDate(),
+                r.hasNext() ? r.nextInt() : 0);
+    }
+
+    @Override
+    public void encode(TheaterPlay t, StringBuilder out) {
+        FieldWriter.appendInt(out, t.getId()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, t.getTitle()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, t.getProtagonist()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(out, t.getVenue()).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendDate(out, t.getDate());
+        /* χωρίς όριο θέσεων η εγγραφή μένει ίδια με την παλιά μορφή */
+        if (t.getCapacity() > 0) FieldWriter.appendInt(out.append(FieldWriter.SEPARATOR), t.getCapacity());
+    }
+
+    @Override
+    public void write(TheaterPlay t, SnapshotWriter out) {
+        out.writeInt(t.getId());
+        out.writeString(t.getTitle());
+        out.writeDictString(t.getProtagonist());
+        out.writeDictString(t.getVenue());
+        out.writeDate(t.getDate());
+        out.writeInt(t.getCapacity());
+    }
+
+    @Override
+    public TheaterPlay read(SnapshotReader in) {
+        return new TheaterPlay(in.readInt(), in.readString(), in.readDictString(), in.readDictString(), in.readDate(),
+                in.readInt());
+    }
+}
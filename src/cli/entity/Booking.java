@@ -1,18 +1,32 @@
 package cli.entity;
 
+import cli.codec.BookingCodec;
+import cli.codec.EntityDescriptor;
+
 import java.util.Objects;
 
 /**
  * Η κλάση {@code Booking} αναπαριστά μία κράτηση εισιτηρίου από έναν πελάτη
  * για μια θεατρική ή μουσική παράσταση.
  */
-public class Booking {
+public class Booking implements Identifiable {
 
     /**
      * Τύπος της εκδήλωσης: θεατρική ή μουσική.
      */
     public enum EventType { THEATER, MUSIC }
 
+    /**
+     * Σύνθετο κλειδί εκδήλωσης: τύπος και κωδικός.
+     *
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     */
+    public record EventKey(EventType type, int eventId) { }
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο· ίδια με το {@link BookingCodec#DESCRIPTOR}. */
+    public static final EntityDescriptor<Booking> DESCRIPTOR = BookingCodec.DESCRIPTOR;
+
     private final int id;
     private int customerId;
     private EventType eventType;
@@ -38,6 +52,7 @@ public class Booking {
      *
      * @return Κωδικός κράτησης
      */
+    @Override
     public int getId() {
         return id;
     }
@@ -70,7 +85,16 @@ public class Booking {
     }
 
     /**
-     * Επιστρέφει τη συμβολοσειρά αναπαράστασης της κράτησης, κατάλληλη για αποθήκευση σε αρχείο.
+     * Επιστρέφει το σύνθετο κλειδί της εκδήλωσης της κράτησης.
+     *
+     * @return {@code (eventType, eventId)}
+     */
+    public EventKey getEventKey() {
+        return new EventKey(eventType, eventId);
+    }
+
+    /**
+     * Επιστρέφει τη συμβολοσειρά αναπαράστασης της κράτησης, για εμφάνιση (η αποθήκευση γίνεται μέσω {@link BookingCodec}).
      *
      * @return Συμβολοσειρά μορφής {@code id|customerId|eventType|eventId}
      */
@@ -80,19 +104,14 @@ public class Booking {
     }
 
     /**
-     * Δημιουργεί αντικείμενο {@code Booking} από συμβολοσειρά που έχει φορτωθεί από αρχείο.
+     * Δημιουργεί αντικείμενο {@code Booking} από συμβολοσειρά που έχει φορτωθεί από αρχείο
+     * μέσω του {@link BookingCodec}.
      *
      * @param s Συμβολοσειρά μορφής {@code id|customerId|eventType|eventId}
      * @return Νέο αντικείμενο {@code Booking}
      */
     public static Booking fromString(String s) {
-        var p = s.split("\\|");
-        return new Booking(
-                Integer.parseInt(p[0]),
-                Integer.parseInt(p[1]),
-                EventType.valueOf(p[2]),
-                Integer.parseInt(p[3])
-        );
+        return BookingCodec.INSTANCE.decode(s);
     }
 
     /**
@@ -1,12 +1,19 @@
 package cli.entity;
 
+import cli.codec.CustomerCodec;
+import cli.codec.EntityDescriptor;
+
 import java.util.Objects;
 
 /**
  * Η κλάση {@code Customer} αναπαριστά έναν πελάτη του συστήματος,
  * ο οποίος έχει έναν μοναδικό κωδικό και ένα όνομα.
  */
-public class Customer {
+public class Customer implements Identifiable {
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο· ίδια με το {@link CustomerCodec#DESCRIPTOR}. */
+    public static final EntityDescriptor<Customer> DESCRIPTOR = CustomerCodec.DESCRIPTOR;
+
     private final int id;
     private String name;
 
@@ -26,6 +33,7 @@ public class Customer {
      *
      * @return Κωδικός (int)
      */
+    @Override
     public int getId() {
         return id;
     }
@@ -49,8 +57,8 @@ public class Customer {
     }
 
     /**
-     * Επιστρέφει αναπαράσταση της κατάστασης του πελάτη σε μορφή συμβολοσειράς,
-     * κατάλληλη για αποθήκευση σε αρχείο.
+     * Επιστρέφει αναπαράσταση της κατάστασης του πελάτη σε μορφή συμβολοσειράς
+     * για εμφάνιση (η αποθήκευση γίνεται μέσω {@link CustomerCodec}).
      *
      * @return Συμβολοσειρά μορφής {@code id|name}
      */
@@ -60,14 +68,14 @@ public class Customer {
     }
 
     /**
-     * Δημιουργεί αντικείμενο {@code Customer} από συμβολοσειρά.
+     * Δημιουργεί αντικείμενο {@code Customer} από συμβολοσειρά
+     * μέσω του {@link CustomerCodec}.
      *
      * @param s Συμβολοσειρά μορφής {@code id|name}
      * @return Νέο αντικείμενο {@code Customer}
      */
     public static Customer fromString(String s) {
-        var p = s.split("\\|");
-        return new Customer(Integer.parseInt(p[0]), p[1]);
+        return CustomerCodec.INSTANCE.decode(s);
     }
 
     /**
@@ -0,0 +1,15 @@
+package cli.entity;
+
+/**
+ * Οντότητα με μοναδικό ακέραιο κωδικό, μέσω του οποίου την αποθηκεύει
+ * και την αναζητά το αποθετήριο.
+ */
+public interface Identifiable {
+
+    /**
+     * Επιστρέφει τον μοναδικό κωδικό της οντότητας.
+     *
+     * @return Κωδικός (int)
+     */
+    int getId();
+}
@@ -1,22 +1,30 @@
 package cli.entity;
 
+import cli.codec.MusicShowCodec;
+import cli.codec.EntityDescriptor;
+
 import java.time.LocalDate;
 import java.util.Objects;
 
 /**
  * Η κλάση {@code MusicShow} αναπαριστά μια μουσική παράσταση
  * με βασικά χαρακτηριστικά όπως: κωδικός, τίτλος, τραγουδιστής,
- * χώρος και ημερομηνία.
+ * χώρος, ημερομηνία και πλήθος θέσεων.
  */
-public class MusicShow {
+public class MusicShow implements Identifiable {
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο· ίδια με το {@link MusicShowCodec#DESCRIPTOR}. */
+    public static final EntityDescriptor<MusicShow> DESCRIPTOR = MusicShowCodec.DESCRIPTOR;
+
     private final int id;
     private String title;
     private String singer;
     private String venue;
     private LocalDate date;
+    private int capacity;
 
     /**
-     * Κατασκευάζει μια νέα μουσική παράσταση.
+     * Δημιουργεί παράσταση χωρίς όριο θέσεων.
      *
      * @param id Κωδικός της παράστασης
      * @param title Τίτλος της παράστασης
@@ -25,11 +33,26 @@ public class MusicShow {
      * @param date Ημερομηνία παράστασης
      */
     public MusicShow(int id, String title, String singer, String venue, LocalDate date) {
+        this(id, title, singer, venue, date, 0);
+    }
+
+    /**
+     * Κατασκευάζει μια νέα μουσική παράσταση.
+     *
+     * @param id Κωδικός της παράστασης
+     * @param title Τίτλος της παράστασης
+     * @param singer Τραγουδιστής
+     * @param venue Χώρος διεξαγωγής
+     * @param date Ημερομηνία παράστασης
+     * @param capacity Πλήθος θέσεων ({@code 0} για χωρίς όριο)
+     */
+    public MusicShow(int id, String title, String singer, String venue, LocalDate date, int capacity) {
         this.id = id;
         this.title = title;
         this.singer = singer;
         this.venue = venue;
         this.date = date;
+        this.capacity = Math.max(0, capacity);
     }
 
     /**
@@ -37,6 +60,7 @@ public class MusicShow {
      *
      * @return Κωδικός παράστασης
      */
+    @Override
     public int getId() {
         return id;
     }
@@ -114,30 +138,42 @@ public class MusicShow {
     }
 
     /**
-     * Επιστρέφει συμβολοσειρά που περιγράφει την παράσταση, κατάλληλη για αποθήκευση σε αρχείο.
+     * Επιστρέφει το πλήθος θέσεων της παράστασης.
+     *
+     * @return Χωρητικότητα ({@code 0} για χωρίς όριο)
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Ορίζει νέο πλήθος θέσεων· οι κρατήσεις που υπάρχουν ήδη δεν επηρεάζονται.
+     *
+     * @param capacity Νέα χωρητικότητα ({@code 0} για χωρίς όριο)
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * Επιστρέφει συμβολοσειρά που περιγράφει την παράσταση, για εμφάνιση (η αποθήκευση γίνεται μέσω {@link MusicShowCodec}).
      *
-     * @return Συμβολοσειρά μορφής {@code id|title|singer|venue|date}
+     * @return Συμβολοσειρά μορφής {@code id|title|singer|venue|date[|capacity θέσεις]}
      */
     @Override
     public String toString() {
-        return id + "|" + title + "|" + singer + "|" + venue + "|" + date;
+        return id + "|" + title + "|" + singer + "|" + venue + "|" + date + (capacity > 0 ? "|" + capacity + " θέσεις" : "");
     }
 
     /**
-     * Δημιουργεί αντικείμενο {@code MusicShow} από δεδομένα κειμένου.
+     * Δημιουργεί αντικείμενο {@code MusicShow} από δεδομένα κειμένου
+     * μέσω του {@link MusicShowCodec}.
      *
      * @param s Συμβολοσειρά μορφής {@code id|title|singer|venue|date}
      * @return Νέο αντικείμενο {@code MusicShow}
      */
     public static MusicShow fromString(String s) {
-        var p = s.split("\\|");
-        return new MusicShow(
-                Integer.parseInt(p[0]),
-                p[1],
-                p[2],
-                p[3],
-                LocalDate.parse(p[4])
-        );
+        return MusicShowCodec.INSTANCE.decode(s);
     }
 
     /**
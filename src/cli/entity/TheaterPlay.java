@@ -1,21 +1,29 @@
 package cli.entity;
 
+import cli.codec.TheaterPlayCodec;
+import cli.codec.EntityDescriptor;
+
 import java.time.LocalDate;
 import java.util.Objects;
 
 /**
  * Αντιπροσωπεύει μια θεατρική παράσταση με τα βασικά της χαρακτηριστικά:
- * κωδικό, τίτλο, πρωταγωνιστή, χώρο και ημερομηνία.
+ * κωδικό, τίτλο, πρωταγωνιστή, χώρο, ημερομηνία και πλήθος θέσεων.
  */
-public class TheaterPlay {
+public class TheaterPlay implements Identifiable {
+
+    /** Μεταδεδομένα της οντότητας για το αποθετήριο· ίδια με το {@link TheaterPlayCodec#DESCRIPTOR}. */
+    public static final EntityDescriptor<TheaterPlay> DESCRIPTOR = TheaterPlayCodec.DESCRIPTOR;
+
     private final int id;
     private String title;
     private String protagonist;
     private String venue;
     private LocalDate date;
+    private int capacity;
 
     /**
-     * Δημιουργεί ένα νέο αντικείμενο θεατρικής παράστασης.
+     * Δημιουργεί παράσταση χωρίς όριο θέσεων.
      *
      * @param id Κωδικός της παράστασης
      * @param title Τίτλος της παράστασης
@@ -24,11 +32,26 @@ public class TheaterPlay {
      * @param date Ημερομηνία παράστασης
      */
     public TheaterPlay(int id, String title, String protagonist, String venue, LocalDate date) {
+        this(id, title, protagonist, venue, date, 0);
+    }
+
+    /**
+     * Δημιουργεί ένα νέο αντικείμενο θεατρικής παράστασης.
+     *
+     * @param id Κωδικός της παράστασης
+     * @param title Τίτλος της παράστασης
+     * @param protagonist Πρωταγωνιστής της παράστασης
+     * @param venue Χώρος διεξαγωγής
+     * @param date Ημερομηνία παράστασης
+     * @param capacity Πλήθος θέσεων ({@code 0} για χωρίς όριο)
+     */
+    public TheaterPlay(int id, String title, String protagonist, String venue, LocalDate date, int capacity) {
         this.id = id;
         this.title = title;
         this.protagonist = protagonist;
         this.venue = venue;
         this.date = date;
+        this.capacity = Math.max(0, capacity);
     }
 
     /**
@@ -36,6 +59,7 @@ public class TheaterPlay {
      *
      * @return Κωδικός (int)
      */
+    @Override
     public int getId() {
         return id;
     }
@@ -113,30 +137,42 @@ public class TheaterPlay {
     }
 
     /**
-     * Επιστρέφει συμβολοσειρά με τα στοιχεία της παράστασης σε μορφή που μπορεί να αποθηκευτεί σε αρχείο.
+     * Επιστρέφει το πλήθος θέσεων της παράστασης.
+     *
+     * @return Χωρητικότητα ({@code 0} για χωρίς όριο)
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Ορίζει νέο πλήθος θέσεων· οι κρατήσεις που υπάρχουν ήδη δεν επηρεάζονται.
+     *
+     * @param capacity Νέα χωρητικότητα ({@code 0} για χωρίς όριο)
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * Επιστρέφει συμβολοσειρά με τα στοιχεία της παράστασης για εμφάνιση (η αποθήκευση γίνεται μέσω {@link TheaterPlayCodec}).
      *
-     * @return Συμβολοσειρά μορφής id|title|protagonist|venue|date
+     * @return Συμβολοσειρά μορφής id|title|protagonist|venue|date[|capacity θέσεις]
      */
     @Override
     public String toString() {
-        return id + "|" + title + "|" + protagonist + "|" + venue + "|" + date;
+        return id + "|" + title + "|" + protagonist + "|" + venue + "|" + date + (capacity > 0 ? "|" + capacity + " θέσεις" : "");
     }
 
     /**
-     * Δημιουργεί αντικείμενο TheaterPlay από συμβολοσειρά που έχει φορτωθεί από αρχείο.
+     * Δημιουργεί αντικείμενο TheaterPlay από συμβολοσειρά που έχει φορτωθεί από αρχείο
+     * μέσω του {@link TheaterPlayCodec}.
      *
      * @param s Συμβολοσειρά μορφής id|title|protagonist|venue|date
      * @return Νέο αντικείμενο TheaterPlay
      */
     public static TheaterPlay fromString(String s) {
-        var p = s.split("\\|");
-        return new TheaterPlay(
-                Integer.parseInt(p[0]),
-                p[1],
-                p[2],
-                p[3],
-                LocalDate.parse(p[4])
-        );
+        return TheaterPlayCodec.INSTANCE.decode(s);
     }
 
     /**
@@ -0,0 +1,454 @@
+package cli.http;
+
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.Identifiable;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+import cli.service.BookingPipeline;
+import cli.service.BookingStats;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ενσωματωμένος HTTP server με JSON API πάνω στα ίδια αποθετήρια με το CLI, ώστε ταμεία,
+ * ηλεκτρονικό κατάστημα και kiosks να μοιράζονται τα ίδια δεδομένα.
+ * <p>Βασίζεται στον {@code com.sun.net.httpserver} του JDK και εξυπηρετεί τις αιτήσεις σε
+ * φραγμένο pool {@value #THREADS} νημάτων· οι υπόλοιπες περιμένουν στην ουρά του, οπότε
+ * χιλιάδες ταυτόχρονοι πελάτες δεν χρειάζονται ισάριθμα νήματα του λειτουργικού. Οι
+ * κρατήσεις περνούν από τη {@link BookingPipeline}, ώστε οι αιχμές να γράφονται στο journal
+ * σε ομάδες.</p>
+ * <pre>
+ * GET    /theater?from=0&amp;limit=100   σελίδα παραστάσεων {"total":N,"items":[...]}
+ * GET    /theater/{id}                 μία παράσταση
+ * POST   /theater                      νέα παράσταση (title, protagonist, venue, date[, capacity])
+ * PUT    /theater/{id}                 αλλαγή όσων πεδίων δίνονται
+ * DELETE /theater/{id}
+ * ...    /music, /customers            αντίστοιχα (singer αντί για protagonist· name για πελάτες)
+ * GET    /bookings, /bookings/{id}
+ * POST   /bookings                     {"customerId":1,"eventType":"THEATER","eventId":2}
+ * GET    /stats                        κρατήσεις και χωρητικότητα ανά εκδήλωση
+ * </pre>
+ * <p>Τα σφάλματα επιστρέφονται ως {@code {"error":"..."}} με κατάλληλο κωδικό HTTP:
+ * 400 για εσφαλμένη αίτηση, 404 για ανύπαρκτο πόρο, 409 για κράτηση που απορρίφθηκε.</p>
+ */
+public final class ApiServer implements AutoCloseable {
+
+    /** Προεπιλεγμένη θύρα. */
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY = 64 * 1024;
+    /** Ουρά εισερχόμενων συνδέσεων, για αιχμές χιλιάδων πελατών. */
+    public static final int BACKLOG = 4096;
+    /**
+     * Νήματα εξυπηρέτησης. Μια κράτηση κρατά το νήμα της όσο περιμένει τη σωλήνωση, οπότε
+     * αρκετά νήματα χρειάζονται ώστε η σωλήνωση να γεμίζει ομάδες.
+     */
+    public static final int THREADS = 64;
+
+    /**
+     * Αντιστοίχιση μιας οντότητας από/προς JSON.
+     *
+     * @param <T> Τύπος οντότητας
+     */
+    private interface Resource<T extends Identifiable> {
+        /** Γράφει την οντότητα ως αντικείμενο JSON. */
+        void write(T t, StringBuilder out);
+
+        /**
+         * Δημιουργεί νέα οντότητα από το σώμα αίτησης· όλα τα υποχρεωτικά πεδία πρέπει να υπάρχουν.
+         * Καλείται πρώτα με κωδικό {@code 0}, για έλεγχο πριν δεσμευτεί κωδικός.
+         */
+        T create(int id, Map<String, Object> body);
+
+        /** Δημιουργεί νέο αντικείμενο με τα πεδία του σώματος και τα υπόλοιπα από το {@code old}. */
+        T update(T old, Map<String, Object> body);
+    }
+
+    /** Απάντηση HTTP με σώμα JSON ({@code null} για κενό σώμα). */
+    private record Response(int status, String body) { }
+
+    /** Σφάλμα που αντιστοιχεί σε συγκεκριμένο κωδικό HTTP. */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /** Οι κρατήσεις δημιουργούνται μόνο μέσω της σωλήνωσης και δεν αλλάζουν. */
+    private static final Resource<Booking> BOOKING = new Resource<>() {
+        @Override
+        public void write(Booking b, StringBuilder out) {
+            out.append("{\"id\":").append(b.getId()).append(",\"customerId\":").append(b.getCustomerId())
+                    .append(",\"eventType\":\"").append(b.getEventType().name())
+                    .append("\",\"eventId\":").append(b.getEventId()).append('}');
+        }
+        @Override
+        public Booking create(int id, Map<String, Object> body) { throw notAllowed(); }
+        @Override
+        public Booking update(Booking old, Map<String, Object> body) { throw notAllowed(); }
+    };
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(HttpExchange exchange, Integer id) throws IOException;
+    }
+
+    private final CsvRepository<TheaterPlay> theater;
+    private final CsvRepository<MusicShow> music;
+    private final CsvRepository<Booking> bookings;
+    private final BookingStats stats;
+    private final BookingPipeline pipeline;
+    private final HttpServer http;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "api-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /**
+     * Δημιουργεί τον server χωρίς να τον ξεκινά.
+     *
+     * @param address Διεύθυνση και θύρα ακρόασης
+     * @param theater Αποθετήριο θεατρικών παραστάσεων
+     * @param music Αποθετήριο μουσικών παραστάσεων
+     * @param customers Αποθετήριο πελατών
+     * @param bookings Αποθετήριο κρατήσεων
+     * @param stats Στατιστικά κρατήσεων
+     * @param pipeline Σωλήνωση κρατήσεων
+     */
+    public ApiServer(InetSocketAddress address, CsvRepository<TheaterPlay> theater, CsvRepository<MusicShow> music,
+                     CsvRepository<Customer> customers, CsvRepository<Booking> bookings,
+                     BookingStats stats, BookingPipeline pipeline) {
+        this.theater = theater;
+        this.music = music;
+        this.bookings = bookings;
+        this.stats = stats;
+        this.pipeline = pipeline;
+        try {
+            this.http = HttpServer.create(address, BACKLOG);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        http.setExecutor(executor);
+        crud("/theater", theater, new Resource<>() {
+            @Override
+            public void write(TheaterPlay tp, StringBuilder out) {
+                event(out, tp.getId(), tp.getTitle(), "protagonist", tp.getProtagonist(), tp.getVenue(), tp.getDate(), tp.getCapacity());
+            }
+            @Override
+            public TheaterPlay create(int id, Map<String, Object> b) {
+                return new TheaterPlay(id, string(b, "title"), string(b, "protagonist"), string(b, "venue"),
+                        date(b, "date"), integer(b, "capacity", 0));
+            }
+            @Override
+            public TheaterPlay update(TheaterPlay old, Map<String, Object> b) {
+                return new TheaterPlay(old.getId(), string(b, "title", old.getTitle()),
+                        string(b, "protagonist", old.getProtagonist()), string(b, "venue", old.getVenue()),
+                        b.containsKey("date") ? date(b, "date") : old.getDate(), integer(b, "capacity", old.getCapacity()));
+            }
+        });
+        crud("/music", music, new Resource<>() {
+            @Override
+            public void write(MusicShow ms, StringBuilder out) {
+                event(out, ms.getId(), ms.getTitle(), "singer", ms.getSinger(), ms.getVenue(), ms.getDate(), ms.getCapacity());
+            }
+            @Override
+            public MusicShow create(int id, Map<String, Object> b) {
+                return new MusicShow(id, string(b, "title"), string(b, "singer"), string(b, "venue"),
+                        date(b, "date"), integer(b, "capacity", 0));
+            }
+            @Override
+            public MusicShow update(MusicShow old, Map<String, Object> b) {
+                return new MusicShow(old.getId(), string(b, "title", old.getTitle()),
+                        string(b, "singer", old.getSinger()), string(b, "venue", old.getVenue()),
+                        b.containsKey("date") ? date(b, "date") : old.getDate(), integer(b, "capacity", old.getCapacity()));
+            }
+        });
+        crud("/customers", customers, new Resource<>() {
+            @Override
+            public void write(Customer c, StringBuilder out) {
+                out.append("{\"id\":").append(c.getId()).append(",\"name\":");
+                Json.appendString(out, c.getName()).append('}');
+            }
+            @Override
+            public Customer create(int id, Map<String, Object> b) {
+                return new Customer(id, string(b, "name"));
+            }
+            @Override
+            public Customer update(Customer old, Map<String, Object> b) {
+                return new Customer(old.getId(), string(b, "name", old.getName()));
+            }
+        });
+        route("/bookings", this::bookings);
+        route("/stats", (exchange, id) -> {
+            if (id != null || !"GET".equals(exchange.getRequestMethod())) throw notAllowed();
+            return new Response(200, stats());
+        });
+    }
+
+    /** Ξεκινά την ακρόαση. */
+    public void start() {
+        http.start();
+    }
+
+    /** @return Η θύρα ακρόασης (χρήσιμο όταν ζητήθηκε η θύρα 0) */
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Σταματά να δέχεται συνδέσεις, περιμένει έως 1 s να ολοκληρωθούν οι τρέχουσες
+     * αιτήσεις και τερματίζει τα νήματά τους.
+     */
+    @Override
+    public void close() {
+        http.stop(1);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* ---------- Routing ---------- */
+
+    private <T extends Identifiable> void crud(String path, CsvRepository<T> repo, Resource<T> res) {
+        route(path, (exchange, id) -> switch (exchange.getRequestMethod()) {
+            case "GET" -> id == null ? list(exchange, repo, res) : new Response(200, json(res, find(repo, id)));
+            case "POST" -> {
+                if (id != null) throw notAllowed();
+                Map<String, Object> body = body(exchange);
+                /* πρώτα ο έλεγχος, ώστε μια αίτηση με 400 να μην καταναλώνει κωδικό */
+                res.create(0, body);
+                T created = res.create(repo.nextId(), body);
+                repo.save(created);
+                yield new Response(201, json(res, created));
+            }
+            case "PUT" -> {
+                if (id == null) throw notAllowed();
+                Map<String, Object> body = body(exchange);
+                /* νέο αντικείμενο αντί για setters: όσοι διαβάζουν το παλιό δεν βλέπουν μισή αλλαγή */
+                T updated = repo.atomically(() -> {
+                    T next = res.update(find(repo, id), body);
+                    repo.save(next);
+                    return next;
+                });
+                yield new Response(200, json(res, updated));
+            }
+            case "DELETE" -> {
+                if (id == null) throw notAllowed();
+                repo.atomically(() -> {
+                    repo.delete(find(repo, id).getId());
+                    return null;
+                });
+                yield new Response(204, null);
+            }
+            default -> throw notAllowed();
+        });
+    }
+
+    private Response bookings(HttpExchange exchange, Integer id) throws IOException {
+        Resource<Booking> res = BOOKING;
+        return switch (exchange.getRequestMethod()) {
+            case "GET" -> id == null ? list(exchange, bookings, res) : new Response(200, json(res, find(bookings, id)));
+            case "POST" -> {
+                if (id != null) throw notAllowed();
+                Map<String, Object> body = body(exchange);
+                Booking.EventType type;
+                try {
+                    type = Booking.EventType.valueOf(string(body, "eventType"));
+                } catch (IllegalArgumentException e) {
+                    throw new HttpError(400, "Άγνωστος τύπος εκδήλωσης");
+                }
+                try {
+                    Booking b = pipeline.submit(integer(body, "customerId"), type, integer(body, "eventId")).join();
+                    yield new Response(201, json(res, b));
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof IllegalArgumentException rejected) throw new HttpError(409, rejected.getMessage());
+                    throw e;
+                }
+            }
+            default -> throw notAllowed();
+        };
+    }
+
+    /** Καταχωρεί handler για τη διαδρομή και ό,τι ακολουθεί ως {@code /{id}}. */
+    private void route(String path, Handler handler) {
+        http.createContext(path, exchange -> {
+            Response response;
+            try {
+                response = handler.handle(exchange, id(exchange, path));
+            } catch (HttpError e) {
+                response = error(e.status, e.getMessage());
+            } catch (CompletionException e) {
+                response = e.getCause() instanceof RejectedExecutionException
+                        ? error(503, e.getCause().getMessage()) : error(500, String.valueOf(e.getCause()));
+            } catch (RejectedExecutionException e) {
+                response = error(503, e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                response = error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                response = error(500, String.valueOf(e));
+            }
+            send(exchange, response);
+        });
+    }
+
+    private static Integer id(HttpExchange exchange, String path) {
+        String rest = exchange.getRequestURI().getPath().substring(path.length());
+        if (rest.isEmpty() || rest.equals("/")) return null;
+        if (rest.charAt(0) != '/') throw new HttpError(404, "Άγνωστη διαδρομή");
+        try {
+            return Integer.parseInt(rest, 1, rest.length() - (rest.endsWith("/") ? 1 : 0), 10);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "Άγνωστη διαδρομή");
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body == null ? new byte[0] : response.body.getBytes(StandardCharsets.UTF_8);
+        if (response.body != null) exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Json.appendString(new StringBuilder("{\"error\":"), message).append('}').toString());
+    }
+
+    private static HttpError notAllowed() {
+        return new HttpError(405, "Μη επιτρεπτή μέθοδος");
+    }
+
+    /* ---------- Read / Write ---------- */
+
+    private static <T extends Identifiable> T find(CsvRepository<T> repo, int id) {
+        return repo.findById(id).orElseThrow(() -> new HttpError(404, "Δεν βρέθηκε: " + id));
+    }
+
+    private static <T extends Identifiable> Response list(HttpExchange exchange, CsvRepository<T> repo, Resource<T> res) {
+        int from = 0, limit = DEFAULT_LIMIT;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                int eq = param.indexOf('=');
+                if (eq < 0) continue;
+                String value = URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8);
+                switch (param.substring(0, eq)) {
+                    case "from" -> from = Math.max(0, Integer.parseInt(value));
+                    case "limit" -> limit = Math.min(MAX_LIMIT, Math.max(0, Integer.parseInt(value)));
+                    default -> { }
+                }
+            }
+        }
+        List<T> page = repo.findPage(from, limit);
+        StringBuilder out = new StringBuilder(64 + 128 * page.size());
+        out.append("{\"total\":").append(repo.count()).append(",\"items\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) out.append(',');
+            res.write(page.get(i), out);
+        }
+        return new Response(200, out.append("]}").toString());
+    }
+
+    private static <T extends Identifiable> String json(Resource<T> res, T t) {
+        StringBuilder out = new StringBuilder(128);
+        res.write(t, out);
+        return out.toString();
+    }
+
+    private static void event(StringBuilder out, int id, String title, String artistField, String artist,
+                              String venue, LocalDate date, int capacity) {
+        out.append("{\"id\":").append(id).append(",\"title\":");
+        Json.appendString(out, title).append(",\"").append(artistField).append("\":");
+        Json.appendString(out, artist).append(",\"venue\":");
+        Json.appendString(out, venue).append(",\"date\":\"").append(date).append("\",\"capacity\":").append(capacity).append('}');
+    }
+
+    private String stats() {
+        StringBuilder out = new StringBuilder(4096).append("{\"theater\":[");
+        int n = 0;
+        for (TheaterPlay tp : theater.findAll()) {
+            statsEntry(out, n++, Booking.EventType.THEATER, tp.getId(), tp.getTitle(), tp.getCapacity());
+        }
+        out.append("],\"music\":[");
+        n = 0;
+        for (MusicShow ms : music.findAll()) {
+            statsEntry(out, n++, Booking.EventType.MUSIC, ms.getId(), ms.getTitle(), ms.getCapacity());
+        }
+        return out.append("],\"bookings\":").append(bookings.count()).append('}').toString();
+    }
+
+    private void statsEntry(StringBuilder out, int n, Booking.EventType type, int id, String title, int capacity) {
+        if (n > 0) out.append(',');
+        out.append("{\"id\":").append(id).append(",\"title\":");
+        Json.appendString(out, title).append(",\"bookings\":").append(stats.count(type, id))
+                .append(",\"capacity\":").append(capacity).append('}');
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY + 1);
+        }
+        if (bytes.length > MAX_BODY) throw new HttpError(413, "Πολύ μεγάλο σώμα αίτησης");
+        return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static String string(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof String s) || s.isBlank()) throw new HttpError(400, "Λείπει το πεδίο " + field);
+        return s;
+    }
+
+    private static String string(Map<String, Object> body, String field, String def) {
+        return body.containsKey(field) ? string(body, field) : def;
+    }
+
+    private static int integer(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof Long v) || v != v.intValue()) throw new HttpError(400, "Λείπει ή δεν είναι ακέραιος το πεδίο " + field);
+        return v.intValue();
+    }
+
+    private static int integer(Map<String, Object> body, String field, int def) {
+        return body.containsKey(field) ? integer(body, field) : def;
+    }
+
+    private static LocalDate date(Map<String, Object> body, String field) {
+        return LocalDate.parse(string(body, field));
+    }
+}
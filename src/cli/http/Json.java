@@ -0,0 +1,158 @@
+package cli.http;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ελάχιστος κωδικοποιητής/αναλυτής JSON για το {@link ApiServer}, χωρίς εξωτερικές βιβλιοθήκες.
+ * <p>Η ανάλυση υποστηρίζει μόνο επίπεδα αντικείμενα, όπως τα σώματα των αιτήσεων του API:
+ * οι τιμές γίνονται {@code String}, {@code Long}, {@code Double}, {@code Boolean} ή {@code null}.</p>
+ */
+public final class Json {
+
+    private final String s;
+    private int pos;
+
+    private Json(String s) {
+        this.s = s;
+    }
+
+    /**
+     * Γράφει συμβολοσειρά JSON σε εισαγωγικά, με escape των ειδικών χαρακτήρων.
+     *
+     * @param out Buffer εξόδου
+     * @param v Κείμενο ({@code null} γράφεται ως {@code null})
+     * @return Ο ίδιος buffer
+     */
+    public static StringBuilder appendString(StringBuilder out, String v) {
+        if (v == null) return out.append("null");
+        out.append('"');
+        int run = 0;
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            out.append(v, run, i).append('\\');
+            switch (c) {
+                case '"', '\\' -> out.append(c);
+                case '\n' -> out.append('n');
+                case '\r' -> out.append('r');
+                case '\t' -> out.append('t');
+                default -> out.append(String.format("u%04x", (int) c));
+            }
+            run = i + 1;
+        }
+        return out.append(v, run, v.length()).append('"');
+    }
+
+    /**
+     * Αναλύει ένα επίπεδο αντικείμενο JSON.
+     *
+     * @param s Το κείμενο JSON
+     * @return Τα πεδία του αντικειμένου με τη σειρά εμφάνισης
+     * @throws IllegalArgumentException αν το κείμενο δεν είναι έγκυρο επίπεδο αντικείμενο
+     */
+    public static Map<String, Object> parseObject(String s) {
+        Json p = new Json(s);
+        Map<String, Object> fields = new LinkedHashMap<>();
+        p.expect('{');
+        if (!p.consume('}')) {
+            do {
+                p.skipSpace();
+                String key = p.string();
+                p.expect(':');
+                fields.put(key, p.value());
+            } while (p.consume(','));
+            p.expect('}');
+        }
+        p.skipSpace();
+        if (p.pos < s.length()) throw p.error();
+        return fields;
+    }
+
+    private Object value() {
+        skipSpace();
+        if (pos >= s.length()) throw error();
+        char c = s.charAt(pos);
+        if (c == '"') return string();
+        if (c == '-' || (c >= '0' && c <= '9')) return number();
+        if (s.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+        if (s.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+        if (s.startsWith("null", pos)) { pos += 4; return null; }
+        throw error();
+    }
+
+    private String string() {
+        if (pos >= s.length() || s.charAt(pos) != '"') throw error();
+        StringBuilder out = new StringBuilder();
+        for (pos++; pos < s.length(); pos++) {
+            char c = s.charAt(pos);
+            if (c == '"') {
+                pos++;
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (++pos >= s.length()) break;
+            switch (s.charAt(pos)) {
+                case '"' -> out.append('"');
+                case '\\' -> out.append('\\');
+                case '/' -> out.append('/');
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    if (pos + 4 >= s.length()) throw error();
+                    try {
+                        out.append((char) Integer.parseInt(s, pos + 1, pos + 5, 16));
+                    } catch (NumberFormatException e) {
+                        throw error();
+                    }
+                    pos += 4;
+                }
+                default -> throw error();
+            }
+        }
+        throw error();
+    }
+
+    private Object number() {
+        int start = pos;
+        boolean integral = true;
+        for (; pos < s.length(); pos++) {
+            char c = s.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E' || c == '+') integral = false;
+            else if (c != '-' && (c < '0' || c > '9')) break;
+        }
+        try {
+            String n = s.substring(start, pos);
+            return integral ? (Object) Long.parseLong(n) : (Object) Double.parseDouble(n);
+        } catch (NumberFormatException e) {
+            throw error();
+        }
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) throw error();
+    }
+
+    private boolean consume(char c) {
+        skipSpace();
+        if (pos < s.length() && s.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error() {
+        return new IllegalArgumentException("Μη έγκυρο JSON στη θέση " + pos);
+    }
+}
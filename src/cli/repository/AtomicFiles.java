@@ -0,0 +1,53 @@
+package cli.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ασφαλής αντικατάσταση αρχείων: εγγραφή σε προσωρινό αρχείο, fsync και ατομική
+ * μετονομασία πάνω στο παλιό. Ένα crash αφήνει είτε το παλιό είτε το νέο περιεχόμενο,
+ * ποτέ ένα μισογραμμένο αρχείο.
+ */
+final class AtomicFiles {
+
+    /** Παραγωγός του περιεχομένου ενός αρχείου. */
+    @FunctionalInterface
+    interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFiles() { }
+
+    /**
+     * Αντικαθιστά ατομικά το περιεχόμενο του αρχείου.
+     *
+     * @param target Το αρχείο
+     * @param content Παραγωγός του νέου περιεχομένου
+     * @throws IOException σε σφάλμα εγγραφής (το αρχείο μένει ως είχε)
+     */
+    static void replace(Path target, Content content) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16);
+            content.writeTo(out);
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException e) {
+            /* δεν υποστηρίζεται fsync καταλόγου (π.χ. Windows)· η μετονομασία έχει ήδη γίνει */
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package cli.repository;
+
+import cli.entity.Booking;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Στηλοθετημένη (columnar) αποθήκη κρατήσεων.
+ * <p>Κάθε {@link Booking} αποτελείται από τέσσερις ακεραίους, οπότε αποθηκεύεται ως γραμμή
+ * {@value #ROW} bytes ({@code id, customerId, eventType, eventId}) σε σελίδες {@link ByteBuffer}
+ * των {@value #PAGE_ROWS} γραμμών, χωρίς object header, boxed κλειδί και κόμβο χάρτη ανά
+ * κράτηση. Τα αντικείμενα {@code Booking} δημιουργούνται μόνο όταν ζητηθούν από το
+ * αποθετήριο.</p>
+ * <p>Τα στιγμιότυπα ({@link #snapshot()}) είναι copy-on-write ανά σελίδα: κρατούν αντίγραφο
+ * μόνο του καταλόγου των σελίδων. Η πρώτη εγγραφή σε μια κοινή σελίδα (αλλαγή, διαγραφή ή
+ * προσθήκη στην τελευταία, μερικώς γεμάτη σελίδα) αντιγράφει μόνο αυτή τη σελίδα.</p>
+ */
+public final class BookingColumnStore implements EntityStore<Booking> {
+
+    /** Μέγεθος γραμμής σε bytes. */
+    public static final int ROW = 16;
+
+    private static final int PAGE_SHIFT = 12;
+    /** Γραμμές ανά σελίδα. */
+    private static final int PAGE_ROWS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_ROWS - 1;
+    private static final int PAGE_BYTES = PAGE_ROWS * ROW;
+
+    private static final int DELETED = -1;
+    private static final Booking.EventType[] TYPES = Booking.EventType.values();
+
+    private ByteBuffer[] pages;
+    /** Η εποχή στην οποία αντιγράφηκε ή δημιουργήθηκε κάθε σελίδα· βλ. {@link #writable(int)}. */
+    private long[] pageEpoch;
+    /** Αυξάνεται σε κάθε στιγμιότυπο· σελίδα παλαιότερης εποχής είναι κοινή με στιγμιότυπο. */
+    private final AtomicLong epoch = new AtomicLong();
+    private final IntIndex index = new IntIndex();
+    private int used;
+    private int size;
+    private int modCount;
+
+    /** Δημιουργεί κενή αποθήκη. */
+    public BookingColumnStore() {
+        this.pages = new ByteBuffer[0];
+        this.pageEpoch = new long[0];
+    }
+
+    @Override
+    public Booking get(int id) {
+        int r = index.get(id);
+        return r < 0 ? null : booking(pages, r);
+    }
+
+    @Override
+    public Booking put(int id, Booking b) {
+        int r = index.get(id);
+        Booking old = r < 0 ? null : booking(pages, r);
+        ByteBuffer page;
+        if (r < 0) {
+            r = used;
+            if ((r >>> PAGE_SHIFT) == pages.length) grow();
+            /* και η προσθήκη περνά από writable: μετά από compaction η γραμμή μπορεί να ανήκει σε στιγμιότυπο */
+            page = writable(r >>> PAGE_SHIFT);
+            used++;
+            index.put(id, r);
+            size++;
+            modCount++;
+        } else {
+            page = writable(r >>> PAGE_SHIFT);
+        }
+        int off = (r & PAGE_MASK) * ROW;
+        page.putInt(off, id);
+        page.putInt(off + 4, b.getCustomerId());
+        page.putInt(off + 8, b.getEventType().ordinal());
+        page.putInt(off + 12, b.getEventId());
+        return old;
+    }
+
+    @Override
+    public Booking remove(int id) {
+        int r = index.remove(id);
+        if (r < 0) return null;
+        Booking old = booking(pages, r);
+        writable(r >>> PAGE_SHIFT).putInt((r & PAGE_MASK) * ROW + 8, DELETED);
+        size--;
+        modCount++;
+        if (used > 1024 && used - size > used / 2) compact();
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        /* νέος κατάλογος αντί για επαναχρησιμοποίηση, ώστε να μένουν άθικτα τυχόν στιγμιότυπα */
+        pages = new ByteBuffer[0];
+        pageEpoch = new long[0];
+        index.clear();
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Collection<Booking> values() {
+        return new AbstractCollection<>() {
+            @Override public Iterator<Booking> iterator() { return new Values(); }
+            @Override public int size()                   { return size; }
+        };
+    }
+
+    /** Στιγμιότυπο σε O(πλήθος σελίδων): αντιγράφεται μόνο ο κατάλογος των σελίδων. */
+    @Override
+    public Collection<Booking> snapshot() {
+        ByteBuffer[] view = Arrays.copyOf(pages, (used + PAGE_MASK) >>> PAGE_SHIFT);
+        int end = used, count = size;
+        /* μετά την αύξηση, κάθε υπάρχουσα σελίδα θεωρείται κοινή */
+        epoch.incrementAndGet();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Booking> iterator() {
+                return new Iterator<>() {
+                    private int row = advance(view, 0, end);
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < end;
+                    }
+
+                    @Override
+                    public Booking next() {
+                        if (row >= end) throw new NoSuchElementException();
+                        Booking b = booking(view, row);
+                        row = advance(view, row + 1, end);
+                        return b;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    private int getInt(int r, int column) {
+        return pages[r >>> PAGE_SHIFT].getInt((r & PAGE_MASK) * ROW + column);
+    }
+
+    private static Booking booking(ByteBuffer[] pages, int r) {
+        ByteBuffer page = pages[r >>> PAGE_SHIFT];
+        int off = (r & PAGE_MASK) * ROW;
+        return new Booking(page.getInt(off), page.getInt(off + 4), TYPES[page.getInt(off + 8)], page.getInt(off + 12));
+    }
+
+    private static int advance(ByteBuffer[] pages, int r, int end) {
+        while (r < end && pages[r >>> PAGE_SHIFT].getInt((r & PAGE_MASK) * ROW + 8) == DELETED) r++;
+        return r;
+    }
+
+    /**
+     * Νέα σελίδα στο heap: τα αντίγραφα του copy-on-write ελευθερώνονται από τον GC μαζί με το
+     * στιγμιότυπο που κρατά την παλιά σελίδα, χωρίς να δεσμεύουν direct μνήμη μέχρι τότε.
+     */
+    private static ByteBuffer newPage() {
+        return ByteBuffer.allocate(PAGE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Επιστρέφει τη σελίδα για εγγραφή, αντιγράφοντάς την αν είναι κοινή με στιγμιότυπο. */
+    private ByteBuffer writable(int p) {
+        long now = epoch.get();
+        if (pageEpoch[p] != now) {
+            pages[p] = newPage().put(0, pages[p], 0, PAGE_BYTES);
+            pageEpoch[p] = now;
+        }
+        return pages[p];
+    }
+
+    /** Προσθέτει μία σελίδα, χωρίς να αντιγράφει τις υπάρχουσες. */
+    private void grow() {
+        int n = pages.length;
+        if ((long) (n + 1) << PAGE_SHIFT > Integer.MAX_VALUE) throw new IllegalStateException("Η αποθήκη κρατήσεων είναι πλήρης");
+        pages = Arrays.copyOf(pages, n + 1);
+        pageEpoch = Arrays.copyOf(pageEpoch, n + 1);
+        pages[n] = newPage();
+        pageEpoch[n] = epoch.get();
+    }
+
+    /** Μετακινεί τις ζωντανές γραμμές στην αρχή, κρατώντας τη σειρά τους. */
+    private void compact() {
+        if (used == size) return;
+        int w = 0;
+        for (int r = 0; r < used; r++) {
+            if (getInt(r, 8) == DELETED) continue;
+            if (w != r) {
+                writable(w >>> PAGE_SHIFT).put((w & PAGE_MASK) * ROW, pages[r >>> PAGE_SHIFT], (r & PAGE_MASK) * ROW, ROW);
+                index.put(getInt(w, 0), w);
+            }
+            w++;
+        }
+        used = w;
+        int keep = (used + PAGE_MASK) >>> PAGE_SHIFT;
+        pages = Arrays.copyOf(pages, keep);
+        pageEpoch = Arrays.copyOf(pageEpoch, keep);
+        modCount++;
+    }
+
+    private final class Values implements Iterator<Booking> {
+        private final int expected = modCount;
+        private int row = advance(pages, 0, used);
+
+        @Override
+        public boolean hasNext() {
+            return row < used;
+        }
+
+        @Override
+        public Booking next() {
+            if (modCount != expected) throw new ConcurrentModificationException();
+            if (row >= used) throw new NoSuchElementException();
+            Booking b = booking(pages, row);
+            row = advance(pages, row + 1, used);
+            return b;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package cli.repository;
+
+import cli.codec.FieldReader;
+import cli.entity.Identifiable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Μαζική εισαγωγή εγγραφών από εξωτερικό αρχείο CSV σε ένα {@link CsvRepository}.
+ * <p>Το αρχείο διαβάζεται σειριακά σε ομάδες των {@code batchSize} γραμμών, ώστε να μη
+ * φορτώνεται ολόκληρο στη μνήμη. Για κάθε ομάδα:</p>
+ * <ol>
+ *   <li>δεσμεύονται με μία κλήση {@link CsvRepository#nextIds(int)} κωδικοί για όλες τις γραμμές·</li>
+ *   <li>οι γραμμές αναλύονται και ελέγχονται παράλληλα στο common pool, ενώ η επόμενη
+ *       ομάδα διαβάζεται από το αρχείο·</li>
+ *   <li>οι έγκυρες εγγραφές αποθηκεύονται ατομικά με {@link CsvRepository#saveAll}, υπό τα
+ *       κλειδώματα του αποθετηρίου-στόχου και των αποθετηρίων αναφοράς.</li>
+ * </ol>
+ * <p>Ο έλεγχος αναφορών (π.χ. ύπαρξη πελάτη και παράστασης μιας κράτησης) είναι αισιόδοξος:
+ * γίνεται χωρίς κλείδωμα και επαναλαμβάνεται υπό κλείδωμα μόνο αν κάποιο αποθετήριο
+ * αναφοράς μεταβλήθηκε στο μεταξύ. Οι κωδικοί των γραμμών που απορρίπτονται μένουν
+ * αχρησιμοποίητοι.</p>
+ *
+ * @param <T> Τύπος εγγραφών
+ */
+public final class BulkImport<T extends Identifiable> {
+
+    /** Προεπιλεγμένο πλήθος γραμμών ανά ομάδα. */
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    /**
+     * Ανάλυση μιας γραμμής του εξωτερικού αρχείου.
+     *
+     * @param <T> Τύπος εγγραφών
+     */
+    @FunctionalInterface
+    public interface RowParser<T> {
+        /**
+         * @param id Ο κωδικός που δεσμεύτηκε για τη γραμμή
+         * @param fields Τα πεδία της γραμμής
+         * @return Η εγγραφή
+         * @throws RuntimeException αν η γραμμή είναι εσφαλμένη
+         */
+        T parse(int id, FieldReader fields);
+    }
+
+    /**
+     * Έλεγχος εγκυρότητας μιας εγγραφής, π.χ. αναφορών σε άλλα αποθετήρια.
+     *
+     * @param <T> Τύπος εγγραφών
+     */
+    @FunctionalInterface
+    public interface Validator<T> {
+        /**
+         * @param row Η εγγραφή
+         * @return Η αιτία απόρριψης ή {@code null} αν η εγγραφή είναι έγκυρη
+         */
+        String check(T row);
+    }
+
+    /**
+     * Γραμμή που απορρίφθηκε.
+     *
+     * @param line Αριθμός γραμμής στο αρχείο (από 1)
+     * @param reason Αιτία
+     */
+    public record Rejection(long line, String reason) { }
+
+    /**
+     * Απολογισμός μιας εισαγωγής.
+     *
+     * @param accepted Πλήθος εγγραφών που αποθηκεύτηκαν
+     * @param rejected Οι γραμμές που απορρίφθηκαν, με τη σειρά του αρχείου
+     * @param nanos Διάρκεια σε ns
+     */
+    public record Report(long accepted, List<Rejection> rejected, long nanos) {
+
+        /** @return Γραμμές (αποδεκτές και απορριφθείσες) ανά δευτερόλεπτο */
+        public double throughput() {
+            return nanos == 0 ? 0 : (accepted + rejected.size()) * 1e9 / nanos;
+        }
+    }
+
+    private final CsvRepository<T> target;
+    private final RowParser<T> parser;
+    private final Validator<T> validator;
+    private final CsvRepository<?>[] locked;
+    private final CsvRepository<?>[] references;
+
+    /**
+     * @param target Το αποθετήριο όπου γίνεται η εισαγωγή
+     * @param parser Ανάλυση μιας γραμμής
+     * @param validator Έλεγχος εγκυρότητας μιας εγγραφής
+     * @param references Τα αποθετήρια που διαβάζει ο {@code validator}
+     */
+    public BulkImport(CsvRepository<T> target, RowParser<T> parser, Validator<T> validator,
+                      CsvRepository<?>... references) {
+        this.target = target;
+        this.parser = parser;
+        this.validator = validator;
+        this.references = references.clone();
+        this.locked = new CsvRepository<?>[references.length + 1];
+        this.locked[0] = target;
+        System.arraycopy(references, 0, locked, 1, references.length);
+    }
+
+    /**
+     * Εισάγει όλες τις μη κενές γραμμές του αρχείου σε ομάδες των {@value #DEFAULT_BATCH_SIZE}.
+     *
+     * @param source Το εξωτερικό αρχείο CSV
+     * @return Απολογισμός της εισαγωγής
+     */
+    public Report run(Path source) {
+        return run(source, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Εισάγει όλες τις μη κενές γραμμές του αρχείου.
+     *
+     * @param source Το εξωτερικό αρχείο CSV
+     * @param batchSize Πλήθος γραμμών ανά ατομική ομάδα
+     * @return Απολογισμός της εισαγωγής
+     */
+    public Report run(Path source, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize < 1");
+        long start = System.nanoTime();
+        long accepted = 0;
+        List<Rejection> rejected = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            Batch batch = read(in, 0, batchSize);
+            while (!batch.lines.isEmpty()) {
+                Batch current = batch;
+                CompletableFuture<Checked> checked = CompletableFuture.supplyAsync(() -> check(current));
+                batch = read(in, current.lastLine, batchSize);
+                accepted += commit(current, checked.join(), rejected);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new Report(accepted, rejected, System.nanoTime() - start);
+    }
+
+    /** Μη κενές γραμμές μιας ομάδας με τους αριθμούς τους στο αρχείο. */
+    private record Batch(List<String> lines, long[] lineNumbers, long lastLine) { }
+
+    /**
+     * Αποτέλεσμα του ελέγχου μιας ομάδας.
+     *
+     * @param results Ανά γραμμή: η έγκυρη εγγραφή ή η αιτία απόρριψης ({@code String})
+     * @param versions Οι μετρητές μεταβολών των αποθετηρίων αναφοράς πριν από τον έλεγχο
+     */
+    private record Checked(Object[] results, long[] versions) { }
+
+    private static Batch read(BufferedReader in, long lineNo, int batchSize) throws IOException {
+        List<String> lines = new ArrayList<>(batchSize);
+        long[] numbers = new long[batchSize];
+        for (String line; lines.size() < batchSize && (line = in.readLine()) != null; ) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            numbers[lines.size()] = lineNo;
+            lines.add(line);
+        }
+        return new Batch(lines, numbers, lineNo);
+    }
+
+    /** Αναλύει και ελέγχει παράλληλα τις γραμμές μιας ομάδας, χωρίς κλείδωμα. */
+    private Checked check(Batch batch) {
+        List<String> lines = batch.lines;
+        Object[] results = new Object[lines.size()];
+        long[] seen = versions();
+        int first = target.nextIds(lines.size());
+        IntStream.range(0, lines.size()).parallel().forEach(i -> {
+            try {
+                String line = lines.get(i);
+                T row = parser.parse(first + i, new FieldReader(line, 0, line.length()));
+                String reason = validator.check(row);
+                results[i] = reason == null ? row : reason;
+            } catch (RuntimeException e) {
+                results[i] = String.valueOf(e.getMessage());
+            }
+        });
+        return new Checked(results, seen);
+    }
+
+    /**
+     * Αποθηκεύει ατομικά τις έγκυρες εγγραφές μιας ομάδας· αν κάποιο αποθετήριο αναφοράς
+     * μεταβλήθηκε μετά τον έλεγχο, οι εγγραφές ξαναελέγχονται υπό κλείδωμα.
+     *
+     * @return Πλήθος εγγραφών που αποθηκεύτηκαν
+     */
+    @SuppressWarnings("unchecked")
+    private int commit(Batch batch, Checked checked, List<Rejection> rejected) {
+        Object[] results = checked.results;
+        int n = results.length;
+        return CsvRepository.atomically(() -> {
+            boolean stale = !Arrays.equals(checked.versions, versions());
+            List<T> rows = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Object r = results[i];
+                if (r instanceof String reason) {
+                    rejected.add(new Rejection(batch.lineNumbers[i], reason));
+                    continue;
+                }
+                String reason = stale ? validator.check((T) r) : null;
+                if (reason == null) rows.add((T) r);
+                else rejected.add(new Rejection(batch.lineNumbers[i], reason));
+            }
+            target.saveAll(rows);
+            return rows.size();
+        }, locked);
+    }
+
+    private long[] versions() {
+        long[] v = new long[references.length];
+        for (int i = 0; i < v.length; i++) v[i] = references[i].modifications();
+        return v;
+    }
+}
@@ -0,0 +1,32 @@
+package cli.repository;
+
+/**
+ * Μία μεταβολή ενός {@link CsvRepository}, όπως τη δημοσιεύει το {@link ChangeStream}.
+ * <p>Ο αριθμός ακολουθίας αυξάνεται κατά ένα σε κάθε μεταβολή του αποθετηρίου, με τη σειρά
+ * που εφαρμόστηκαν υπό το κλείδωμα εγγραφής· ένα κενό στην αρίθμηση σημαίνει ότι ο
+ * συνδρομητής έχασε γεγονότα.</p>
+ *
+ * @param sequence Αριθμός ακολουθίας (από 1, από τη δημιουργία της ροής του αποθετηρίου)
+ * @param kind Είδος μεταβολής
+ * @param id Κωδικός του αντικειμένου ({@code 0} για {@link Kind#RESET})
+ * @param before Η κατάσταση πριν από τη μεταβολή ή {@code null} για εισαγωγή
+ * @param after Η κατάσταση μετά τη μεταβολή ή {@code null} για διαγραφή
+ * @param <T> Τύπος αντικειμένων
+ */
+public record ChangeEvent<T>(long sequence, Kind kind, int id, T before, T after) {
+
+    /** Είδος μεταβολής. */
+    public enum Kind {
+        /** Νέο αντικείμενο. */
+        INSERT,
+        /** Αλλαγή υπάρχοντος αντικειμένου. */
+        UPDATE,
+        /** Διαγραφή αντικειμένου. */
+        DELETE,
+        /**
+         * Τα δεδομένα ξαναφορτώθηκαν από τα αρχεία ή ο συνδρομητής έχασε γεγονότα· όποιος
+         * κρατά αντίγραφο πρέπει να το ξαναχτίσει από το αποθετήριο.
+         */
+        RESET
+    }
+}
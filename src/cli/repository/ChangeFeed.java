@@ -0,0 +1,362 @@
+package cli.repository;
+
+import cli.codec.RecordCodec;
+import cli.entity.Identifiable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Εξαγωγή των {@link ChangeStream} πολλών αποθετηρίων σε αρχείο ή socket, ώστε μια άλλη
+ * διεργασία να κρατά αντίγραφο ανάγνωσης χωρίς να ξαναφορτώνει τα CSV.
+ * <p>Κάθε γεγονός γράφεται ως μία γραμμή {@code <οντότητα>|<ακολουθία>|<είδος>|<id>|<εγγραφή>},
+ * όπου είδος {@code I}/{@code U}/{@code D}/{@code R} για εισαγωγή, ενημέρωση, διαγραφή και
+ * {@link ChangeEvent.Kind#RESET}, και εγγραφή η γραμμή CSV της νέας κατάστασης (κενή για
+ * {@code D} και {@code R}). Η εικόνα πριν δεν μεταδίδεται· ένα αντίγραφο δεν τη χρειάζεται.</p>
+ * <p>Κάθε νέος προορισμός ξεκινά, για κάθε οντότητα, με {@code R} και πλήρες στιγμιότυπο σε
+ * γραμμές {@code S}, όλες με τον αριθμό ακολουθίας της στιγμής του στιγμιότυπου· ακολουθούν
+ * τα γεγονότα με συνεχόμενους αριθμούς. Το στιγμιότυπο και η συνδρομή γίνονται μαζί υπό το
+ * κλείδωμα του αποθετηρίου, ώστε να μη χαθεί ούτε να διπλασιαστεί καμία μεταβολή· για
+ * αποθετήριο με {@link PagedCsvStore} αυτό σημαίνει ότι το στιγμιότυπο φορτώνεται όλο στη
+ * μνήμη, για όσο γράφεται.</p>
+ * <p>Κάθε προορισμός έχει δική του συνδρομή ανά οντότητα με buffer {@code capacity}
+ * γεγονότων. Αν ένας αργός προορισμός τον γεμίσει ή το αποθετήριο ξαναφορτωθεί, γράφεται
+ * {@code R} και ο προορισμός κλείνει· το αντίγραφο ξανασυνδέεται και παίρνει νέο στιγμιότυπο.
+ * Οι γραμμές διαφορετικών οντοτήτων μπορεί να εναλλάσσονται· η σειρά ισχύει ανά οντότητα.</p>
+ */
+public final class ChangeFeed implements AutoCloseable {
+
+    /** Προεπιλεγμένο μέγεθος του buffer κάθε προορισμού, σε γεγονότα ανά οντότητα. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int capacity;
+    private final List<Source<?>> sources = new ArrayList<>();
+    private final List<Sink> sinks = new CopyOnWriteArrayList<>();
+    private volatile ServerSocket server;
+    private volatile boolean closed;
+
+    /** Ένα αποθετήριο της εξαγωγής. */
+    private record Source<T extends Identifiable>(String entity, CsvRepository<T> repo) { }
+
+    /** Τα δεδομένα ενός αποθετηρίου και ο αριθμός ακολουθίας της ίδιας στιγμής. */
+    private record Snapshot<T>(Collection<T> rows, long sequence) { }
+
+    /**
+     * @param capacity Μέγεθος του buffer κάθε προορισμού, σε γεγονότα ανά οντότητα
+     */
+    public ChangeFeed(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Προσθέτει αποθετήριο στην εξαγωγή· όλα τα αποθετήρια δηλώνονται πριν από τους προορισμούς.
+     *
+     * @param entity Όνομα της οντότητας στις γραμμές (χωρίς {@code |})
+     * @param repo Το αποθετήριο
+     * @param <T> Τύπος αντικειμένων
+     * @return Η ίδια εξαγωγή
+     */
+    public <T extends Identifiable> ChangeFeed add(String entity, CsvRepository<T> repo) {
+        if (entity.isEmpty() || entity.indexOf('|') >= 0) throw new IllegalArgumentException("Μη έγκυρο όνομα οντότητας: " + entity);
+        if (!sinks.isEmpty()) throw new IllegalStateException("Τα αποθετήρια δηλώνονται πριν από τους προορισμούς");
+        sources.add(new Source<>(entity, repo));
+        return this;
+    }
+
+    /**
+     * Προσθέτει στο τέλος αρχείου τα γεγονότα από εδώ και πέρα, μετά από πλήρες στιγμιότυπο.
+     *
+     * @param file Το αρχείο (δημιουργείται αν δεν υπάρχει)
+     */
+    public void writeTo(Path file) {
+        try {
+            open(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Δέχεται συνδέσεις TCP· κάθε σύνδεση είναι ξεχωριστός προορισμός, με δικό του στιγμιότυπο.
+     *
+     * @param port Θύρα ({@code 0} για οποιαδήποτε ελεύθερη)
+     * @return Η θύρα στην οποία ακούει
+     */
+    public int listen(int port) {
+        try {
+            ServerSocket s = new ServerSocket(port);
+            server = s;
+            Thread t = new Thread(() -> accept(s), "change-feed");
+            t.setDaemon(true);
+            t.start();
+            return s.getLocalPort();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void accept(ServerSocket s) {
+        while (!closed) {
+            try {
+                Socket c = s.accept();
+                c.setTcpNoDelay(true);
+                open(new BufferedWriter(new OutputStreamWriter(c.getOutputStream(), StandardCharsets.UTF_8)));
+            } catch (IOException | RuntimeException e) {
+                /* σφάλμα μιας σύνδεσης δεν σταματά τις υπόλοιπες· το κλείσιμο του server τερματίζει τον βρόχο */
+            }
+        }
+    }
+
+    /** @return Πλήθος ενεργών προορισμών */
+    public int sinks() {
+        return sinks.size();
+    }
+
+    /** Σταματά την αποδοχή συνδέσεων και κλείνει όλους τους προορισμούς. */
+    @Override
+    public void close() {
+        closed = true;
+        ServerSocket s = server;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                /* κλείνει έτσι κι αλλιώς */
+            }
+        }
+        for (Sink sink : sinks) sink.close();
+    }
+
+    private void open(Writer out) {
+        Sink sink = new Sink(out);
+        sinks.add(sink);
+        try {
+            for (Source<?> s : sources) sink.start(s);
+            sink.live();
+        } catch (IOException | RuntimeException e) {
+            sink.close();
+        }
+    }
+
+    /**
+     * Ένας προορισμός. Οι συνδρομές γράφουν από τα δικά τους νήματα υπό το {@link #lock}. Όσο
+     * γράφεται το αρχικό στιγμιότυπο, χωρίς το κλείδωμα, τα γεγονότα μαζεύονται στο
+     * {@link #pending} και γράφονται αμέσως μετά ({@link #live()}), ώστε να το ακολουθούν
+     * χωρίς να περιμένει η παράδοσή τους όλο το στιγμιότυπο.
+     */
+    private final class Sink {
+        private final Writer out;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<ChangeStream<?>.Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        /** Γεγονότα που έφτασαν πριν ολοκληρωθεί το στιγμιότυπο· {@code null} μετά. Υπό το {@link #lock}. */
+        private StringBuilder pending = new StringBuilder();
+
+        Sink(Writer out) {
+            this.out = out;
+        }
+
+        /**
+         * Εγγράφεται για τις μεταβολές μιας οντότητας και γράφει το στιγμιότυπό της· μόνο η
+         * λήψη του στιγμιότυπου γίνεται υπό το κλείδωμα του αποθετηρίου.
+         */
+        <T extends Identifiable> void start(Source<T> src) throws IOException {
+            ChangeStream<T> stream = src.repo.changes();
+            Snapshot<T> snap = src.repo.atomically(() -> {
+                subscriptions.add(stream.subscribe(capacity, batch -> write(src, batch)));
+                /* η σελιδοποιημένη προβολή διαβάζεται κατά τη διάσχιση· αντιγράφεται υπό το κλείδωμα */
+                Collection<T> rows = src.repo.findAll();
+                return new Snapshot<>(src.repo.isPaged() ? new ArrayList<>(rows) : rows, stream.sequence());
+            });
+            RecordCodec<T> codec = src.repo.codec();
+            StringBuilder line = new StringBuilder(1 << 16);
+            head(line, src.entity, snap.sequence, 'R', 0).append('\n');
+            for (T t : snap.rows) {
+                codec.encode(t, head(line, src.entity, snap.sequence, 'S', t.getId()));
+                line.append('\n');
+                if (line.length() >= 1 << 16) {
+                    out.append(line);
+                    line.setLength(0);
+                }
+            }
+            out.append(line);
+        }
+
+        /** Γράφει τα γεγονότα που περίμεναν το στιγμιότυπο· από εδώ και πέρα γράφονται απευθείας. */
+        void live() throws IOException {
+            lock.lock();
+            try {
+                out.append(pending);
+                out.flush();
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private <T extends Identifiable> void write(Source<T> src, List<ChangeEvent<T>> batch) {
+            RecordCodec<T> codec = src.repo.codec();
+            StringBuilder line = new StringBuilder(batch.size() * 64);
+            boolean reset = false;
+            for (ChangeEvent<T> e : batch) {
+                char kind = switch (e.kind()) {
+                    case INSERT -> 'I';
+                    case UPDATE -> 'U';
+                    case DELETE -> 'D';
+                    case RESET -> 'R';
+                };
+                head(line, src.entity, e.sequence(), kind, e.id());
+                if (e.after() != null) codec.encode(e.after(), line);
+                line.append('\n');
+                reset |= e.kind() == ChangeEvent.Kind.RESET;
+            }
+            lock.lock();
+            try {
+                if (closed) return;
+                if (pending != null) {
+                    pending.append(line);
+                } else {
+                    out.append(line);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close();
+            } finally {
+                lock.unlock();
+            }
+            /* μετά από RESET δεν ακολουθεί στιγμιότυπο· το αντίγραφο πρέπει να ξανασυνδεθεί */
+            if (reset) close();
+        }
+
+        void close() {
+            closed = true;
+            sinks.remove(this);
+            for (ChangeStream<?>.Subscription s : subscriptions) s.close();
+            try {
+                out.close();
+            } catch (IOException e) {
+                /* ο προορισμός έχει ήδη χαθεί */
+            }
+        }
+    }
+
+    /** Γράφει την αρχή μιας γραμμής, ως και το {@code |} πριν από την εγγραφή. */
+    private static StringBuilder head(StringBuilder line, String entity, long seq, char kind, int id) {
+        return line.append(entity).append('|').append(seq).append('|').append(kind).append('|').append(id).append('|');
+    }
+
+    /**
+     * Εφαρμογή μιας εξαγωγής σε αντίγραφο ανάγνωσης: διαβάζει τις γραμμές, ελέγχει ότι δεν
+     * λείπουν γεγονότα και παραδίδει σε κάθε οντότητα αποκωδικοποιημένα {@link ChangeEvent}
+     * (χωρίς εικόνα πριν). Οι γραμμές {@code S} του στιγμιότυπου παραδίδονται ως
+     * {@link ChangeEvent.Kind#INSERT}. Γραμμές οντοτήτων που δεν δηλώθηκαν αγνοούνται.
+     */
+    public static final class Follower {
+        private final Map<String, Target<?>> targets = new HashMap<>();
+
+        private static final class Target<T> {
+            private final RecordCodec<T> codec;
+            private final Consumer<ChangeEvent<T>> consumer;
+            /** Ο αριθμός ακολουθίας της τελευταίας γραμμής· {@code -1} πριν από το πρώτο {@code R}. */
+            private long last = -1;
+
+            Target(RecordCodec<T> codec, Consumer<ChangeEvent<T>> consumer) {
+                this.codec = codec;
+                this.consumer = consumer;
+            }
+        }
+
+        /**
+         * Δηλώνει οντότητα.
+         *
+         * @param entity Όνομα της οντότητας στις γραμμές
+         * @param codec Codec των εγγραφών της
+         * @param consumer Καλείται με κάθε γεγονός, από το νήμα του {@link #follow}
+         * @param <T> Τύπος αντικειμένων
+         * @return Ο ίδιος follower
+         */
+        public <T> Follower on(String entity, RecordCodec<T> codec, Consumer<ChangeEvent<T>> consumer) {
+            targets.put(entity, new Target<>(codec, consumer));
+            return this;
+        }
+
+        /**
+         * Εφαρμόζει γραμμές μέχρι το τέλος της ροής (π.χ. κλείσιμο της σύνδεσης).
+         *
+         * @param in Η ροή
+         * @return Πλήθος γραμμών που εφαρμόστηκαν
+         * @throws IOException σε σφάλμα ανάγνωσης
+         * @throws IllegalStateException αν λείπουν γεγονότα ή η γραμμή δεν είναι έγκυρη
+         */
+        public long follow(BufferedReader in) throws IOException {
+            long applied = 0;
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.isEmpty()) continue;
+                int a = line.indexOf('|'), b = line.indexOf('|', a + 1), c = b + 2;
+                int d = c < line.length() && line.charAt(c) == '|' ? line.indexOf('|', c + 1) : -1;
+                if (a < 0 || b < 0 || d < 0) throw new IllegalStateException("Μη έγκυρη γραμμή: " + line);
+                Target<?> t = targets.get(line.substring(0, a));
+                if (t == null) continue;
+                apply(t, Long.parseLong(line, a + 1, b, 10), line.charAt(b + 1),
+                        Integer.parseInt(line, c + 1, d, 10), line, d + 1);
+                applied++;
+            }
+            return applied;
+        }
+
+        private static <T> void apply(Target<T> t, long seq, char kind, int id, String line, int from) {
+            long last = t.last;
+            boolean inOrder = switch (kind) {
+                case 'R' -> true;
+                case 'S' -> seq == last;
+                default -> last >= 0 && seq == last + 1;
+            };
+            if (!inOrder) throw new IllegalStateException("Λείπουν γεγονότα πριν από το " + seq + " (τελευταίο " + last + ")");
+            t.last = seq;
+            ChangeEvent<T> e = switch (kind) {
+                case 'R' -> new ChangeEvent<>(seq, ChangeEvent.Kind.RESET, 0, null, null);
+                case 'S', 'I' -> new ChangeEvent<>(seq, ChangeEvent.Kind.INSERT, id, null, t.codec.decode(line, from, line.length()));
+                case 'U' -> new ChangeEvent<>(seq, ChangeEvent.Kind.UPDATE, id, null, t.codec.decode(line, from, line.length()));
+                case 'D' -> new ChangeEvent<>(seq, ChangeEvent.Kind.DELETE, id, null, null);
+                default -> throw new IllegalStateException("Άγνωστο είδος γεγονότος: " + kind);
+            };
+            t.consumer.accept(e);
+        }
+    }
+
+    /**
+     * Εφαρμόζει γεγονότα σε {@link EntityStore}: εισαγωγή και ενημέρωση ως {@code put},
+     * διαγραφή ως {@code remove} και {@code RESET} ως {@code clear}.
+     *
+     * @param store Η αποθήκη του αντιγράφου
+     * @param <T> Τύπος αντικειμένων
+     * @return Καταναλωτής για τον {@link Follower}
+     */
+    public static <T> Consumer<ChangeEvent<T>> applyTo(EntityStore<T> store) {
+        return e -> {
+            switch (e.kind()) {
+                case INSERT, UPDATE -> store.put(e.id(), e.after());
+                case DELETE -> store.remove(e.id());
+                case RESET -> store.clear();
+            }
+        };
+    }
+}
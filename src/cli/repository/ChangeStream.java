@@ -0,0 +1,128 @@
+package cli.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Ροή μεταβολών (change data capture) ενός {@link CsvRepository}· βλ. {@link CsvRepository#changes()}.
+ * <p>Κάθε {@code save}, {@code saveAll} και {@code delete} δημοσιεύεται, υπό το κλείδωμα
+ * εγγραφής και μετά την εγγραφή στο journal, ως {@link ChangeEvent} με εικόνες πριν και μετά
+ * και αύξοντα αριθμό ακολουθίας. Κάθε φόρτωση δημοσιεύει {@link ChangeEvent.Kind#RESET}.</p>
+ * <p>Κάθε συνδρομητής έχει δικό του φραγμένο buffer και δικό του νήμα (daemon), που του
+ * παραδίδει τα γεγονότα σε ομάδες, με τη σειρά τους. Ο εγγραφέας δεν περιμένει ποτέ: αν ο
+ * buffer ενός συνδρομητή γεμίσει, εκείνος παίρνει ό,τι είχε ήδη μπει, στο τέλος ένα
+ * {@code RESET} και η συνδρομή κλείνει ({@link Subscription#overflowed()}).</p>
+ * <p>Οι εικόνες είναι τα ίδια τα αντικείμενα της αποθήκης· όσοι τα αλλάζουν πρέπει να το
+ * κάνουν σε αντίγραφο ({@link CsvRepository#copyOf}), αλλιώς το {@code before} μιας
+ * ενημέρωσης μπορεί να δείχνει ήδη τη νέα κατάσταση.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ */
+public final class ChangeStream<T> {
+
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    /** Γράφεται μόνο υπό το κλείδωμα εγγραφής του αποθετηρίου. */
+    private volatile long sequence;
+
+    ChangeStream() { }
+
+    /** @return Ο αριθμός ακολουθίας της τελευταίας μεταβολής ({@code 0} αν δεν έγινε καμία) */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Εγγράφει συνδρομητή για όσες μεταβολές γίνουν από εδώ και πέρα.
+     *
+     * @param capacity Μέγιστο πλήθος γεγονότων που περιμένουν παράδοση
+     * @param consumer Καλείται από το νήμα της συνδρομής με κάθε ομάδα γεγονότων
+     * @return Η συνδρομή, για κλείσιμο
+     */
+    public Subscription subscribe(int capacity, Consumer<? super List<ChangeEvent<T>>> consumer) {
+        Subscription s = new Subscription(capacity, consumer);
+        subscribers.add(s);
+        s.thread.start();
+        return s;
+    }
+
+    /**
+     * Δημοσιεύει μία μεταβολή· καλείται από το {@link CsvRepository} υπό το κλείδωμα εγγραφής.
+     */
+    void publish(ChangeEvent.Kind kind, int id, T before, T after) {
+        long seq = sequence + 1;
+        sequence = seq;
+        if (subscribers.isEmpty()) return;
+        ChangeEvent<T> e = new ChangeEvent<>(seq, kind, id, before, after);
+        for (Subscription s : subscribers) s.offer(e);
+    }
+
+    /** Συνδρομή σε {@link ChangeStream}. */
+    public final class Subscription implements AutoCloseable {
+        private final ArrayBlockingQueue<ChangeEvent<T>> queue;
+        private final Consumer<? super List<ChangeEvent<T>>> consumer;
+        private final Thread thread;
+        private volatile boolean closed;
+        /** Ο αριθμός του πρώτου γεγονότος που δεν χώρεσε· {@code 0} χωρίς υπερχείλιση. */
+        private volatile long overflow;
+
+        private Subscription(int capacity, Consumer<? super List<ChangeEvent<T>>> consumer) {
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+            this.consumer = consumer;
+            this.thread = new Thread(this::deliver, "change-stream");
+            thread.setDaemon(true);
+        }
+
+        private void offer(ChangeEvent<T> e) {
+            if (queue.offer(e)) return;
+            /* όχι interrupt: το νήμα πρώτα παραδίδει ό,τι είναι ήδη στον buffer */
+            overflow = e.sequence();
+            subscribers.remove(this);
+        }
+
+        /** Το νήμα της συνδρομής: αδειάζει τον buffer σε ομάδες μέχρι το κλείσιμο. */
+        private void deliver() {
+            List<ChangeEvent<T>> batch = new ArrayList<>();
+            try {
+                while (!closed) {
+                    if (overflow != 0 && queue.isEmpty()) {
+                        consumer.accept(List.of(new ChangeEvent<>(overflow, ChangeEvent.Kind.RESET, 0, null, null)));
+                        break;
+                    }
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    consumer.accept(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                /* close() */
+            } finally {
+                closed = true;
+                subscribers.remove(this);
+            }
+        }
+
+        /** @return {@code true} αν η συνδρομή έκλεισε επειδή γέμισε ο buffer της */
+        public boolean overflowed() {
+            return overflow != 0;
+        }
+
+        /** @return {@code true} αν η συνδρομή δεν παραδίδει πλέον γεγονότα */
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Σταματά την παράδοση· γεγονότα που δεν έχουν παραδοθεί ακόμη απορρίπτονται.
+         * Εξαίρεση από τον {@code consumer} κλείνει επίσης τη συνδρομή.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            subscribers.remove(this);
+            if (Thread.currentThread() != thread) thread.interrupt();
+        }
+    }
+}
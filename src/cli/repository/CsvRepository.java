@@ -1,68 +1,614 @@
 package cli.repository;
 
+import cli.codec.BinaryCodec;
+import cli.codec.EntityDescriptor;
+import cli.codec.RecordCodec;
+import cli.codec.SnapshotReader;
+import cli.codec.SnapshotWriter;
+import cli.entity.Identifiable;
+
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.time.Duration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Η κλάση {@code CsvRepository<T>} αποτελεί γενική υλοποίηση αποθετηρίου δεδομένων
  * σε αρχεία τύπου CSV, με δυνατότητα φόρτωσης, αποθήκευσης και βασικών λειτουργιών CRUD.
+ * <p>Κάθε {@link #save(Object)} και {@link #delete(int)} καταγράφεται αμέσως σε append-only
+ * journal ({@code <αρχείο>.journal}), το οποίο εφαρμόζεται ξανά στο {@link #load()} και
+ * συμπτύσσεται (compaction) στο βασικό CSV από το {@link #save()} ή όταν ξεπεράσει
+ * το όριο εγγραφών. Το compaction γίνεται μόνο αν υπάρχουν μεταβολές και αντικαθιστά
+ * το CSV ατομικά (προσωρινό αρχείο, fsync, μετονομασία)· με {@link #writeBehind(Duration)}
+ * γίνεται στο παρασκήνιο, χωρίς να καθυστερεί τις κλήσεις {@link #save(Object)}.</p>
+ * <p>Οι νέοι κωδικοί δίνονται από ακολουθία στη μνήμη, που αποθηκεύεται στο
+ * {@code <αρχείο>.seq}, ώστε κωδικοί διαγραμμένων εγγραφών να μην ξαναχρησιμοποιούνται.</p>
+ * <p>Αν ο codec υλοποιεί και {@link BinaryCodec}, κάθε compaction γράφει δίπλα στο CSV και
+ * δυαδικό snapshot ({@code <αρχείο>.snap}), από το οποίο γίνεται η φόρτωση όταν είναι
+ * νεότερο από το CSV. Το CSV παραμένει η μορφή εισαγωγής/εξαγωγής.</p>
+ * <p>Το αποθετήριο είναι ασφαλές για πολλά νήματα: οι αναγνώσεις εκτελούνται παράλληλα
+ * υπό κοινό κλείδωμα ανάγνωσης, οι μεταβολές υπό αποκλειστικό κλείδωμα εγγραφής, και
+ * σύνθετες λειτουργίες (π.χ. «έλεγχος πελάτη και παράστασης, μετά κράτηση») εκτελούνται
+ * ατομικά με {@link #atomically(Supplier, CsvRepository[])}.</p>
+ *
+ * <p>Με {@link #loadLazily(LoadMode)} η φόρτωση αναβάλλεται μέχρι την πρώτη πρόσβαση.</p>
+ *
+ * <p>Οι μεταβολές δημοσιεύονται, με αύξοντα αριθμό ακολουθίας, στη ροή {@link #changes()},
+ * στην οποία εγγράφονται ασύγχρονοι συνδρομητές ή ένα {@link ChangeFeed} για αντίγραφα.</p>
+ *
+ * <p>Ο κωδικός κάθε αντικειμένου διαβάζεται μέσω {@link Identifiable#getId()}· το αποθετήριο
+ * δεν χρησιμοποιεί reflection.</p>
  *
  * @param <T> Ο τύπος των αντικειμένων που διαχειρίζεται το αποθετήριο
  */
-public class CsvRepository<T> {
+public class CsvRepository<T extends Identifiable> {
+
+    /** Προεπιλεγμένο πλήθος εγγραφών journal πριν από αυτόματο compaction. */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 10_000;
+
+    /** Πλήθος εγγραφών ανά fsync όταν η πολιτική είναι {@link FsyncPolicy#BATCH}. */
+    private static final int JOURNAL_BATCH = 64;
+
+    /** Μέγεθος (σε χαρακτήρες) μετά το οποίο ο buffer του compaction αδειάζει στον writer. */
+    private static final int FLUSH_CHARS = 1 << 16;
+
+    /** Πηγή καθολικής σειράς κλειδώματος, ώστε τα πολλαπλά κλειδώματα να μη δημιουργούν deadlock. */
+    private static final AtomicInteger LOCK_ORDER = new AtomicInteger();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int lockOrder = LOCK_ORDER.incrementAndGet();
 
     private final Path path;
-    private final Function<String, T> parser;
-    private final Function<T, String> serializer;
-    private final Map<Integer, T> data = new LinkedHashMap<>();
+    private final RecordCodec<T> codec;
+    private final BinaryCodec<T> binary;
+    private final Path snapshot;
+    private final StringBuilder buffer = new StringBuilder(256);
+    private final EntityStore<T> data;
+    /** Η αποθήκη, αν διαβάζει τις εγγραφές κατ' απαίτηση από το CSV· αλλιώς {@code null}. */
+    private final PagedCsvStore<T> paged;
+    private final Journal journal;
+    private final IdSequence sequence;
+    private final int compactThreshold;
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final List<SecondaryIndex<T, ?>> indexes = new CopyOnWriteArrayList<>();
+    /** Η ροή μεταβολών· δημιουργείται στην πρώτη {@link #changes()}. */
+    private volatile ChangeStream<T> changes;
+
+    /** Εκτελεί τα compactions του write-behind όλων των αποθετηρίων. */
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "csv-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private volatile boolean dirty;
+    /** Τρόπος της αναβληθείσας φόρτωσης· {@code null} αν δεν εκκρεμεί φόρτωση. */
+    private volatile LoadMode pendingLoad;
+    /** Καθυστέρηση του write-behind σε ms· αρνητική όταν είναι ανενεργό. */
+    private volatile long writeBehindMillis = -1;
+    /** Αυξάνεται σε κάθε μεταβολή, υπό το κλείδωμα εγγραφής· βλ. {@link #modifications()}. */
+    private volatile long modifications;
+    /** Αν τεθεί, οι μεταβολές μένουν στο journal έως το ρητό {@link #save()}. */
+    private volatile boolean deferred;
 
     /**
-     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV.
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV, με fsync σε κάθε εγγραφή
+     * του journal και compaction ανά {@value #DEFAULT_COMPACT_THRESHOLD} εγγραφές.
      *
      * @param file Όνομα ή διαδρομή του αρχείου CSV
      * @param parser Συνάρτηση που μετατρέπει μια γραμμή CSV σε αντικείμενο τύπου {@code T}
      * @param serializer Συνάρτηση που μετατρέπει αντικείμενο τύπου {@code T} σε γραμμή CSV
      */
     public CsvRepository(String file, Function<String, T> parser, Function<T, String> serializer) {
+        this(file, RecordCodec.of(parser, serializer));
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV για την οντότητα του descriptor.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param descriptor Μεταδεδομένα της οντότητας
+     */
+    public CsvRepository(String file, EntityDescriptor<T> descriptor) {
+        this(file, descriptor.codec());
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV για την οντότητα του descriptor,
+     * με εξειδικευμένη αποθήκη στη μνήμη.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param descriptor Μεταδεδομένα της οντότητας
+     * @param store Αποθήκη των αντικειμένων στη μνήμη
+     */
+    public CsvRepository(String file, EntityDescriptor<T> descriptor, EntityStore<T> store) {
+        this(file, descriptor.codec(), store, FsyncPolicy.ALWAYS, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV για την οντότητα του descriptor,
+     * με ρυθμιζόμενο journal και την προεπιλεγμένη αποθήκη στη μνήμη.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param descriptor Μεταδεδομένα της οντότητας
+     * @param fsync Πολιτική fsync των εγγραφών του journal
+     * @param compactThreshold Πλήθος εγγραφών journal μετά το οποίο γίνεται compaction στο CSV
+     */
+    public CsvRepository(String file, EntityDescriptor<T> descriptor, FsyncPolicy fsync, int compactThreshold) {
+        this(file, descriptor.codec(), new IntLinkedMap<>(), fsync, compactThreshold);
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV για την οντότητα του descriptor,
+     * με εξειδικευμένη αποθήκη στη μνήμη και ρυθμιζόμενο journal.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param descriptor Μεταδεδομένα της οντότητας
+     * @param store Αποθήκη των αντικειμένων στη μνήμη
+     * @param fsync Πολιτική fsync των εγγραφών του journal
+     * @param compactThreshold Πλήθος εγγραφών journal μετά το οποίο γίνεται compaction στο CSV
+     */
+    public CsvRepository(String file, EntityDescriptor<T> descriptor, EntityStore<T> store,
+                         FsyncPolicy fsync, int compactThreshold) {
+        this(file, descriptor.codec(), store, fsync, compactThreshold);
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV με τον δοθέντα codec, με fsync σε κάθε
+     * εγγραφή του journal και compaction ανά {@value #DEFAULT_COMPACT_THRESHOLD} εγγραφές.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param codec Codec μετατροπής αντικειμένων από/προς γραμμές CSV
+     */
+    public CsvRepository(String file, RecordCodec<T> codec) {
+        this(file, codec, new IntLinkedMap<>(), FsyncPolicy.ALWAYS, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV με ρυθμιζόμενο journal και
+     * την προεπιλεγμένη αποθήκη στη μνήμη.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param codec Codec μετατροπής αντικειμένων από/προς γραμμές CSV
+     * @param fsync Πολιτική fsync των εγγραφών του journal
+     * @param compactThreshold Πλήθος εγγραφών journal μετά το οποίο γίνεται compaction στο CSV
+     */
+    public CsvRepository(String file, RecordCodec<T> codec, FsyncPolicy fsync, int compactThreshold) {
+        this(file, codec, new IntLinkedMap<>(), fsync, compactThreshold);
+    }
+
+    /**
+     * Δημιουργεί νέο αποθετήριο δεδομένων σε αρχείο CSV με ρυθμιζόμενο journal.
+     *
+     * @param file Όνομα ή διαδρομή του αρχείου CSV
+     * @param codec Codec μετατροπής αντικειμένων από/προς γραμμές CSV
+     * @param store Αποθήκη των αντικειμένων στη μνήμη
+     * @param fsync Πολιτική fsync των εγγραφών του journal
+     * @param compactThreshold Πλήθος εγγραφών journal μετά το οποίο γίνεται compaction στο CSV
+     */
+    public CsvRepository(String file, RecordCodec<T> codec, EntityStore<T> store,
+                         FsyncPolicy fsync, int compactThreshold) {
         this.path = Paths.get(file);
-        this.parser = parser;
-        this.serializer = serializer;
+        this.codec = codec;
+        this.paged = store instanceof PagedCsvStore<T> p ? p : null;
+        /* με σελιδοποίηση το CSV είναι ήδη η μορφή ανάγνωσης· δεν χρειάζεται snapshot */
+        this.binary = paged == null && codec instanceof BinaryCodec<?> ? binaryOf(codec) : null;
+        this.snapshot = Paths.get(file + ".snap");
+        this.data = store;
+        this.journal = new Journal(Paths.get(file + ".journal"), fsync, JOURNAL_BATCH);
+        this.sequence = new IdSequence(Paths.get(file + ".seq"));
+        this.compactThreshold = compactThreshold;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BinaryCodec<T> binaryOf(RecordCodec<T> codec) {
+        return (BinaryCodec<T>) codec;
     }
 
     /**
-     * Φορτώνει τα δεδομένα από το αρχείο CSV στη μνήμη.
-     * Αν το αρχείο δεν υπάρχει, δεν γίνεται καμία ενέργεια.
+     * Φορτώνει τα δεδομένα από το snapshot (αν είναι νεότερο) ή από το αρχείο CSV στη μνήμη
+     * και εφαρμόζει στη συνέχεια τις εγγραφές του journal που δεν έχουν ακόμη συμπτυχθεί.
+     * Αν τα αρχεία δεν υπάρχουν, δεν γίνεται καμία ενέργεια.
      */
     public void load() {
-        if (!Files.exists(path)) return;
-        try (var lines = Files.lines(path)) {
-            lines.filter(l -> !l.isBlank()).map(parser).forEach(t -> data.put(id(t), t));
+        load(LoadMode.SEQUENTIAL);
+    }
+
+    /**
+     * Φορτώνει τα δεδομένα με τον δοθέντα τρόπο ανάγνωσης του βασικού CSV και εφαρμόζει
+     * στη συνέχεια το journal. Η σειρά των εγγραφών είναι πάντα η σειρά του αρχείου.
+     *
+     * @param mode Τρόπος φόρτωσης του βασικού CSV
+     */
+    public void load(LoadMode mode) {
+        lock.writeLock().lock();
+        try {
+            loadLocked(mode);
+            pendingLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Αναβάλλει τη φόρτωση μέχρι την πρώτη πρόσβαση στα δεδομένα (αναζήτηση, μεταβολή,
+     * δέσμευση κωδικού, ερώτημα ευρετηρίου). Ένα αποθετήριο που δεν χρησιμοποιείται
+     * ποτέ δεν διαβάζεται ούτε ξαναγράφεται.
+     *
+     * @param mode Τρόπος φόρτωσης του βασικού CSV όταν έρθει η ώρα
+     */
+    public void loadLazily(LoadMode mode) {
+        pendingLoad = Objects.requireNonNull(mode);
+    }
+
+    /**
+     * Ολοκληρώνει μια αναβληθείσα φόρτωση ({@link #loadLazily(LoadMode)}), αν δεν έχει ήδη
+     * γίνει. Χρήσιμο σε παρατηρητές ({@link RepositoryListener}) που ερωτώνται χωρίς να
+     * περάσουν από το αποθετήριο.
+     * <p>Δεν πρέπει να καλείται ενώ το τρέχον νήμα κρατά μόνο το κλείδωμα ανάγνωσης.</p>
+     */
+    public void ensureLoaded() {
+        if (pendingLoad == null) return;
+        lock.writeLock().lock();
+        try {
+            LoadMode mode = pendingLoad;
+            if (mode != null) load(mode);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void loadLocked(LoadMode mode) {
+        boolean fromSnapshot = false;
+        if (paged != null) {
+            paged.open(path, codec);
+            sequence.advanceTo(paged.maxId());
+        } else if (!(fromSnapshot = loadSnapshot()) && Files.exists(path)) {
+            if (mode == LoadMode.PARALLEL) {
+                ParallelCsvLoader.load(path, codec::decode, this::put);
+            } else {
+                try (var lines = Files.lines(path)) {
+                    lines.filter(l -> !l.isBlank()).map(codec::decode).forEach(this::put);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        journal.replay(l -> put(codec.decode(l)), data::remove, sequence::advanceTo);
+        sequence.load();
+        /* ό,τι ήρθε από το journal, ή λείπει έγκυρο snapshot, γράφεται στο επόμενο compaction */
+        dirty = journal.records() > 0 || (binary != null && data.size() > 0 && !fromSnapshot);
+        listeners.forEach(this::rebuild);
+        publish(ChangeEvent.Kind.RESET, 0, null, null);
+    }
+
+    /**
+     * Φορτώνει το snapshot αν υπάρχει, είναι τουλάχιστον τόσο νέο όσο το CSV και
+     * αποκωδικοποιείται ολόκληρο χωρίς σφάλμα· αλλιώς η φόρτωση γίνεται από το CSV.
+     *
+     * @return {@code true} αν τα δεδομένα φορτώθηκαν από το snapshot
+     */
+    private boolean loadSnapshot() {
+        if (binary == null || !Files.exists(snapshot)) return false;
+        try {
+            if (Files.exists(path)
+                    && Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(path)) < 0) {
+                return false;
+            }
+            ByteBuffer buf;
+            try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                buf = ByteBuffer.allocate(Math.toIntExact(ch.size()));
+                while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+                buf.flip();
+            }
+            List<T> rows;
+            try {
+                SnapshotReader in = new SnapshotReader(buf);
+                rows = new ArrayList<>(in.count());
+                for (int i = in.count(); i > 0; i--) rows.add(binary.read(in));
+            } catch (RuntimeException e) {
+                /* οποιοδήποτε σφάλμα αποκωδικοποίησης: το CSV είναι πάντα η έγκυρη πηγή */
+                return false;
+            }
+            rows.forEach(this::put);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Αποθηκεύει τα δεδομένα από τη μνήμη στο αρχείο CSV.
+     * Εγγράφει παρατηρητή μεταβολών και τον ενημερώνει αμέσως με τα τρέχοντα δεδομένα.
+     *
+     * @param listener Ο παρατηρητής
+     */
+    public void addListener(RepositoryListener<T> listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+            rebuild(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει τη ροή μεταβολών του αποθετηρίου, για συνδρομητές που ενημερώνονται
+     * ασύγχρονα (cache, αντίγραφο ανάγνωσης σε άλλη διεργασία κ.λπ.)· βλ. {@link ChangeFeed}.
+     *
+     * @return Η ροή μεταβολών, ίδια σε κάθε κλήση
+     */
+    public ChangeStream<T> changes() {
+        ChangeStream<T> c = changes;
+        if (c != null) return c;
+        lock.writeLock().lock();
+        try {
+            if (changes == null) changes = new ChangeStream<>();
+            return changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Codec των εγγραφών, για το {@link ChangeFeed}. */
+    RecordCodec<T> codec() {
+        return codec;
+    }
+
+    /** @return {@code true} αν το {@link #findAll()} διαβάζει το CSV σταδιακά ({@link PagedCsvStore}) */
+    boolean isPaged() {
+        return paged != null;
+    }
+
+    /**
+     * Δηλώνει μη μοναδικό δευτερεύον ευρετήριο, το οποίο χτίζεται αμέσως και
+     * ενημερώνεται στο εξής σε κάθε μεταβολή.
+     *
+     * @param name Όνομα του ευρετηρίου
+     * @param key Συνάρτηση που εξάγει το κλειδί (όχι {@code null}) του ευρετηρίου από ένα αντικείμενο
+     * @param <K> Τύπος κλειδιού (με σωστά {@code equals}/{@code hashCode})
+     * @return Το ευρετήριο, για ερωτήματα χωρίς σάρωση
+     */
+    public <K> SecondaryIndex<T, K> addIndex(String name, Function<T, K> key) {
+        SecondaryIndex<T, K> index = new SecondaryIndex<>(name, key, data::get, lock.readLock(), this::ensureLoaded);
+        indexes.add(index);
+        addListener(index);
+        return index;
+    }
+
+    /**
+     * Δηλώνει ταξινομημένο δευτερεύον ευρετήριο, για ερωτήματα εύρους (π.χ. ημερομηνιών).
+     *
+     * @param name Όνομα του ευρετηρίου
+     * @param key Συνάρτηση που εξάγει το κλειδί (όχι {@code null}) από ένα αντικείμενο
+     * @param <K> Τύπος κλειδιού
+     * @return Το ευρετήριο
+     */
+    public <K extends Comparable<? super K>> SortedIndex<T, K> addSortedIndex(String name, Function<T, K> key) {
+        SortedIndex<T, K> index = new SortedIndex<>(name, key, data::get, lock.readLock(), this::ensureLoaded);
+        indexes.add(index);
+        addListener(index);
+        return index;
+    }
+
+    /**
+     * Δηλώνει ευρετήριο πλήρους κειμένου πάνω στα δοθέντα πεδία κειμένου.
+     *
+     * @param name Όνομα του ευρετηρίου
+     * @param fields Συναρτήσεις που εξάγουν τα πεδία κειμένου (π.χ. τίτλος, χώρος)
+     * @return Το ευρετήριο, για αναζητήσεις με {@link TextIndex#search(String, int)}
+     */
+    public TextIndex<T> addTextIndex(String name, List<Function<T, String>> fields) {
+        TextIndex<T> index = new TextIndex<>(name, fields, data::get, lock.readLock(), this::ensureLoaded);
+        addListener(index);
+        return index;
+    }
+
+    /**
+     * Ενεργοποιεί write-behind: οι μεταβολές γράφονται μόνο στο journal και το CSV/snapshot
+     * ενημερώνονται στο παρασκήνιο, το πολύ {@code delay} μετά την πρώτη μεταβολή μιας
+     * ριπής (ή αμέσως μόλις το journal φτάσει το όριο compaction). Όλες οι μεταβολές της
+     * ριπής συγχωνεύονται σε μία εγγραφή του αρχείου.
+     *
+     * @param delay Μέγιστη καθυστέρηση μεταξύ μεταβολής και εγγραφής στο CSV
+     */
+    public void writeBehind(Duration delay) {
+        writeBehindMillis = Math.max(0, delay.toMillis());
+    }
+
+    /**
+     * Αναστέλλει ή επαναφέρει το αυτόματο compaction. Όσο είναι σε αναστολή, οι μεταβολές
+     * καταγράφονται μόνο στο journal (άρα επιβιώνουν από crash) και το CSV ξαναγράφεται
+     * μία φορά, στο {@link #save()} ή στο {@link #close()}, όσο μεγάλο κι αν γίνει το
+     * journal. Προορίζεται για μαζικές επεξεργασίες.
+     *
+     * @param defer {@code true} για αναστολή
+     */
+    public void deferCompaction(boolean defer) {
+        deferred = defer;
+    }
+
+    /**
+     * Ελέγχει αν υπάρχουν μεταβολές που δεν έχουν γραφτεί ακόμη στο CSV.
+     *
+     * @return {@code true} αν το αποθετήριο έχει μεταβληθεί από το τελευταίο compaction
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Συμπτύσσει τα δεδομένα της μνήμης στο αρχείο CSV (και στο snapshot) και αδειάζει
+     * το journal. Αν δεν υπάρχουν μεταβολές, δεν γράφεται τίποτα.
      */
     public void save() {
+        flushLock.lock();
         try {
-            Files.createDirectories(Optional.ofNullable(path.getParent()).orElse(Path.of(".")));
-            Files.write(path, data.values().stream().map(serializer).toList());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            flush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Compaction σε δύο φάσεις: υπό το κλείδωμα εγγραφής λαμβάνεται αντίγραφο των εγγραφών
+     * και το journal μετακινείται σε {@code .1}· η εγγραφή στον δίσκο (προσωρινό αρχείο,
+     * fsync, ατομική μετονομασία) γίνεται χωρίς κλείδωμα, ώστε αναγνώσεις και νέες
+     * μεταβολές να μην περιμένουν. Το {@code .1} διαγράφεται μόνο μετά την επιτυχία· σε
+     * αποτυχία ή crash εφαρμόζεται ξανά στο επόμενο {@link #load()}, ακίνδυνα αφού τα
+     * upserts/tombstones είναι idempotent.
+     * <p>Καλείται με το {@code flushLock}, ώστε να μην τρέχουν δύο compactions μαζί.</p>
+     */
+    private void flush() {
+        Collection<T> rows = null;
+        lock.writeLock().lock();
+        try {
+            if (!dirty) return;
+            if (paged == null) rows = data.snapshot();
+            journal.rotate();
+            dirty = false;
+            /* η σελιδοποιημένη αποθήκη διαβάζει από το CSV που αντικαθίσταται· μένει υπό κλείδωμα */
+            if (paged != null) commit(null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rows != null) commit(rows);
+    }
+
+    /**
+     * Δεύτερη φάση του compaction: γράφει CSV, snapshot και ακολουθία και, μόνο αν όλα
+     * πετύχουν, διαγράφει το τμήμα του journal που μετακινήθηκε.
+     *
+     * @param rows Οι εγγραφές ή {@code null} για σελιδοποιημένη αποθήκη
+     */
+    private void commit(Collection<T> rows) {
+        try {
+            if (rows == null) {
+                paged.rewrite();
+            } else {
+                AtomicFiles.replace(path, os -> writeCsv(rows, os));
+                if (binary != null) AtomicFiles.replace(snapshot, os -> writeSnapshot(rows, os));
+            }
+            sequence.store();
+            journal.discardRotated();
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e instanceof IOException io ? new RuntimeException(io) : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Γράφει τις εγγραφές σε μορφή CSV· κωδικοποιούνται σε buffer που αδειάζει σε τμήματα.
+     */
+    private void writeCsv(Collection<T> rows, OutputStream os) throws IOException {
+        Writer w = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+        StringBuilder out = new StringBuilder(FLUSH_CHARS + 256);
+        for (T t : rows) {
+            codec.encode(t, out);
+            out.append('\n');
+            if (out.length() >= FLUSH_CHARS) { w.append(out); out.setLength(0); }
+        }
+        w.append(out);
+        w.flush();
+    }
+
+    /**
+     * Γράφει τις εγγραφές στη δυαδική μορφή snapshot.
+     */
+    private void writeSnapshot(Collection<T> rows, OutputStream os) throws IOException {
+        SnapshotWriter out = new SnapshotWriter();
+        for (T t : rows) {
+            binary.write(t, out);
+            out.endRecord();
         }
+        out.writeTo(os);
     }
 
     /**
-     * Επιστρέφει όλα τα αποθηκευμένα αντικείμενα του αποθετηρίου.
+     * Σταματά το write-behind, γράφει ό,τι εκκρεμεί στο CSV και κλείνει το journal.
+     */
+    public void close() {
+        writeBehindMillis = -1;
+        flushLock.lock();
+        try {
+            flush();
+            journal.close();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει όλα τα αποθηκευμένα αντικείμενα του αποθετηρίου, ως συνεπές στιγμιότυπο
+     * της στιγμής της κλήσης που μπορεί να διατρεχθεί ενώ άλλα νήματα κάνουν μεταβολές.
+     * <p>Το στιγμιότυπο είναι copy-on-write ({@link EntityStore#snapshot()}): η λήψη του δεν
+     * αντιγράφει τα αντικείμενα, οπότε ούτε μακροσκελείς αναφορές ούτε οι εγγραφές
+     * περιμένουν η μία την άλλη. Οι αλλαγές σε αντικείμενα πρέπει να γίνονται σε αντίγραφο
+     * ({@link #copyOf}), ώστε να μη φανούν σε όσους κρατούν ήδη το στιγμιότυπο.</p>
+     * <p>Με {@link PagedCsvStore} επιστρέφεται αντί για αντίγραφο συλλογή που διαβάζει το
+     * CSV σταδιακά κατά τη διάσχιση (weakly consistent), ώστε να μη φορτώνεται όλο στη μνήμη.</p>
      *
      * @return Συλλογή όλων των αντικειμένων
      */
     public Collection<T> findAll() {
-        return data.values();
+        ensureLoaded();
+        if (paged != null) return paged.pages(lock.readLock());
+        lock.readLock().lock();
+        try {
+            return data.snapshot();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει μία σελίδα αντικειμένων με τη σειρά του {@link #findAll()}, χωρίς να
+     * αντιγράφει ή να αποκωδικοποιεί τα υπόλοιπα· κατάλληλο για σελιδοποιημένες λίστες.
+     *
+     * @param from Θέση του πρώτου αντικειμένου (από 0)
+     * @param limit Μέγιστο πλήθος αντικειμένων
+     * @return Τα αντικείμενα της σελίδας (κενή λίστα μετά το τέλος)
+     */
+    public List<T> findPage(int from, int limit) {
+        if (from < 0 || limit < 0) throw new IllegalArgumentException("from/limit < 0");
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return data.slice(from, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Πλήθος αποθηκευμένων αντικειμένων */
+    public int count() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return data.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -72,7 +618,27 @@ public class CsvRepository<T> {
      * @return Προαιρετικό αντικείμενο {@code Optional<T>}
      */
     public Optional<T> findById(int id) {
-        return Optional.ofNullable(data.get(id));
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(data.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει ανεξάρτητο αντίγραφο ενός αντικειμένου, μέσω του codec, για αλλαγές που
+     * αποθηκεύονται με {@link #save}: όποιος κρατά το αρχικό (π.χ. στιγμιότυπο του
+     * {@link #findAll()}) δεν βλέπει μισές αλλαγές.
+     *
+     * @param t Το αντικείμενο
+     * @return Νέο αντικείμενο με τις ίδιες τιμές
+     */
+    public T copyOf(T t) {
+        StringBuilder sb = new StringBuilder(128);
+        codec.encode(t, sb);
+        return codec.decode(sb);
     }
 
     /**
@@ -81,38 +647,226 @@ public class CsvRepository<T> {
      * @param id Ο κωδικός του αντικειμένου προς διαγραφή
      */
     public void delete(int id) {
-        data.remove(id);
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            if (data.get(id) == null) return;
+            /* πρώτα το journal: αν αποτύχει, η μνήμη και τα ευρετήρια μένουν ως είχαν */
+            journal.appendDelete(id);
+            T removed = data.remove(id);
+            for (RepositoryListener<T> l : listeners) l.deleted(removed);
+            publish(ChangeEvent.Kind.DELETE, id, removed, null);
+            modifications++;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * Αποθηκεύει ή ενημερώνει ένα αντικείμενο στο αποθετήριο βάσει του κωδικού του.
      *
      * @param t Το αντικείμενο προς αποθήκευση
+     * @throws IllegalArgumentException αν λείπει το κλειδί κάποιου ευρετηρίου (τίποτα δεν γράφεται)
      */
     public void save(T t) {
-        data.put(id(t), t);
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            for (SecondaryIndex<T, ?> index : indexes) index.check(t);
+            buffer.setLength(0);
+            codec.encode(t, buffer);
+            /* πρώτα το journal: αν αποτύχει, η μνήμη και τα ευρετήρια μένουν ως είχαν */
+            journal.appendUpsert(buffer);
+            T previous = data.put(id(t), t);
+            for (RepositoryListener<T> l : listeners) l.saved(previous, t);
+            publish(previous == null ? ChangeEvent.Kind.INSERT : ChangeEvent.Kind.UPDATE, id(t), previous, t);
+            modifications++;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Αποθηκεύει ατομικά πολλά αντικείμενα: εφαρμόζονται με μία λήψη του κλειδώματος και
+     * καταγράφονται στο journal ως μία ομάδα, η οποία μετά από crash είτε εφαρμόζεται
+     * ολόκληρη είτε καθόλου.
+     *
+     * @param rows Τα αντικείμενα προς αποθήκευση
+     * @throws IllegalArgumentException αν λείπει το κλειδί κάποιου ευρετηρίου (τίποτα δεν γράφεται)
+     */
+    public void saveAll(Collection<T> rows) {
+        if (rows.isEmpty()) return;
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            for (T t : rows) {
+                for (SecondaryIndex<T, ?> index : indexes) index.check(t);
+            }
+            journal.appendUpserts(rows, codec::encode);
+            for (T t : rows) {
+                T previous = data.put(id(t), t);
+                for (RepositoryListener<T> l : listeners) l.saved(previous, t);
+                publish(previous == null ? ChangeEvent.Kind.INSERT : ChangeEvent.Kind.UPDATE, id(t), previous, t);
+            }
+            modifications++;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Εκτελεί ατομικά μια σύνθετη λειτουργία πάνω σε αυτό το αποθετήριο: κανένα άλλο νήμα
+     * δεν διαβάζει ή μεταβάλλει το αποθετήριο μέχρι να ολοκληρωθεί.
+     *
+     * @param op Η λειτουργία
+     * @param <R> Τύπος αποτελέσματος
+     * @return Το αποτέλεσμα της λειτουργίας
+     */
+    public <R> R atomically(Supplier<R> op) {
+        return atomically(op, this);
     }
 
     /**
-     * Επιστρέφει τον επόμενο διαθέσιμο κωδικό (ID) για νέα εγγραφή.
+     * Εκτελεί ατομικά μια λειτουργία που αφορά πολλά αποθετήρια (π.χ. έλεγχος πελάτη και
+     * παράστασης και μετά εισαγωγή κράτησης). Τα κλειδώματα εγγραφής λαμβάνονται με
+     * σταθερή καθολική σειρά, ώστε ταυτόχρονες τέτοιες λειτουργίες να μην κάνουν deadlock.
+     *
+     * @param op Η λειτουργία
+     * @param repos Τα αποθετήρια που συμμετέχουν
+     * @param <R> Τύπος αποτελέσματος
+     * @return Το αποτέλεσμα της λειτουργίας
+     */
+    public static <R> R atomically(Supplier<R> op, CsvRepository<?>... repos) {
+        for (CsvRepository<?> r : repos) r.ensureLoaded();
+        CsvRepository<?>[] ordered = repos.clone();
+        Arrays.sort(ordered, Comparator.comparingInt(r -> r.lockOrder));
+        int locked = 0;
+        try {
+            for (CsvRepository<?> r : ordered) {
+                r.lock.writeLock().lock();
+                locked++;
+            }
+            return op.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) ordered[i].lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Μετρητής μεταβολών, για αισιόδοξους ελέγχους χωρίς κλείδωμα: αν η τιμή δεν άλλαξε
+     * μεταξύ δύο αναγνώσεων, το αποθετήριο δεν μεταβλήθηκε στο ενδιάμεσο.
+     *
+     * @return Πλήθος μεταβολών από τη δημιουργία του αποθετηρίου
+     */
+    long modifications() {
+        return modifications;
+    }
+
+    /**
+     * Δεσμεύει τον επόμενο διαθέσιμο κωδικό (ID) για νέα εγγραφή σε O(1).
+     * Κάθε κλήση επιστρέφει νέο κωδικό, ακόμη και από πολλά νήματα.
      *
      * @return Ο επόμενος διαθέσιμος ακέραιος κωδικός
      */
     public int nextId() {
-        return data.keySet().stream().mapToInt(i -> i).max().orElse(0) + 1;
+        ensureLoaded();
+        return sequence.next();
+    }
+
+    /**
+     * Δεσμεύει ατομικά μπλοκ διαδοχικών κωδικών, π.χ. για μαζικές εισαγωγές.
+     * Η δέσμευση καταγράφεται στο journal, ώστε να μην ξαναδοθούν μετά από επανεκκίνηση.
+     *
+     * @param count Πλήθος κωδικών
+     * @return Ο πρώτος κωδικός του μπλοκ {@code [first, first + count)}
+     */
+    public int nextIds(int count) {
+        ensureLoaded();
+        int first = sequence.nextBlock(count);
+        /* το journal είναι synchronized· δεν χρειάζεται το κλείδωμα του αποθετηρίου */
+        journal.appendSequence(first + count - 1);
+        dirty = true;
+        return first;
+    }
+
+    /**
+     * Σημειώνει το αποθετήριο ως μεταβλημένο και προγραμματίζει compaction: με write-behind
+     * στο παρασκήνιο, αλλιώς αμέσως όταν το journal ξεπεράσει το όριο εγγραφών.
+     */
+    private void compactIfNeeded() {
+        dirty = true;
+        if (deferred) return;
+        long delay = writeBehindMillis;
+        boolean full = journal.records() >= compactThreshold;
+        if (delay >= 0) {
+            if (flushPending.compareAndSet(false, true)) {
+                FLUSHER.schedule(this::backgroundFlush, full ? 0 : delay, TimeUnit.MILLISECONDS);
+            }
+        } else if (full && flushLock.tryLock()) {
+            /* αν τρέχει ήδη compaction, το journal θα συμπτυχθεί στο επόμενο */
+            try {
+                flush();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void backgroundFlush() {
+        flushPending.set(false);
+        if (writeBehindMillis < 0) return;
+        flushLock.lock();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            /* το αποθετήριο μένει dirty και το journal άθικτο· ξαναδοκιμάζουμε */
+            if (flushPending.compareAndSet(false, true)) {
+                FLUSHER.schedule(this::backgroundFlush, Math.max(writeBehindMillis, 1000), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Αναδομεί την κατάσταση ενός παρατηρητή από όλα τα δεδομένα.
+     *
+     * @param l Ο παρατηρητής
+     */
+    private void rebuild(RepositoryListener<T> l) {
+        l.reset();
+        for (T t : data.values()) l.saved(null, t);
+    }
+
+    /**
+     * Δημοσιεύει μεταβολή στη ροή μεταβολών, αν έχει ζητηθεί· καλείται υπό το κλείδωμα εγγραφής.
+     */
+    private void publish(ChangeEvent.Kind kind, int id, T before, T after) {
+        ChangeStream<T> c = changes;
+        if (c != null) c.publish(kind, id, before, after);
     }
 
     /**
-     * Βοηθητική μέθοδος που ανακτά το {@code getId()} από το αντικείμενο χρησιμοποιώντας reflection.
+     * Τοποθετεί αντικείμενο στη μνήμη κατά τη φόρτωση, προωθώντας την ακολουθία κωδικών.
+     *
+     * @param t Το αντικείμενο
+     */
+    private void put(T t) {
+        int id = id(t);
+        data.put(id, t);
+        sequence.advanceTo(id);
+    }
+
+    /**
+     * Βοηθητική μέθοδος που επιστρέφει τον κωδικό του αντικειμένου.
      *
      * @param t Το αντικείμενο
      * @return Η τιμή του {@code getId()}
      */
     private int id(T t) {
-        try {
-            return (int) t.getClass().getMethod("getId").invoke(t);
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+        return t.getId();
     }
 }
@@ -0,0 +1,85 @@
+package cli.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Αποθήκη στη μνήμη πίσω από ένα {@link CsvRepository}: αντιστοίχιση κωδικού σε αντικείμενο
+ * με διατήρηση της σειράς εισαγωγής.
+ * <p>Η προεπιλεγμένη υλοποίηση κρατά τα ίδια τα αντικείμενα· εξειδικευμένες υλοποιήσεις
+ * (π.χ. {@link BookingColumnStore}) μπορούν να κρατούν τα πεδία σε στήλες και να
+ * δημιουργούν αντικείμενα κατά την ανάγνωση.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ */
+public interface EntityStore<T> {
+
+    /**
+     * @param id Κωδικός
+     * @return Το αντικείμενο ή {@code null} αν δεν υπάρχει
+     */
+    T get(int id);
+
+    /**
+     * Εισάγει ή αντικαθιστά αντικείμενο.
+     *
+     * @param id Κωδικός
+     * @param t Αντικείμενο
+     * @return Το προηγούμενο αντικείμενο ή {@code null}
+     */
+    T put(int id, T t);
+
+    /**
+     * Αφαιρεί αντικείμενο.
+     *
+     * @param id Κωδικός
+     * @return Το αντικείμενο που αφαιρέθηκε ή {@code null}
+     */
+    T remove(int id);
+
+    /** @return Πλήθος αντικειμένων */
+    int size();
+
+    /** Αφαιρεί όλα τα αντικείμενα. */
+    void clear();
+
+    /**
+     * Επιστρέφει όψη όλων των αντικειμένων με τη σειρά εισαγωγής.
+     *
+     * @return Συλλογή μόνο για ανάγνωση
+     */
+    Collection<T> values();
+
+    /**
+     * Επιστρέφει στιγμιότυπο όλων των αντικειμένων με τη σειρά εισαγωγής: δεν επηρεάζεται
+     * από μεταγενέστερες αλλαγές και μπορεί να διατρέχεται χωρίς κλείδωμα, ενώ άλλα νήματα
+     * γράφουν. Καλείται υπό το κλείδωμα του αποθετηρίου.
+     * <p>Η προεπιλεγμένη υλοποίηση αντιγράφει όλα τα αντικείμενα· οι υλοποιήσεις με πίνακα
+     * θέσεων την αντικαθιστούν με copy-on-write, ώστε το στιγμιότυπο να μην κοστίζει O(n).</p>
+     *
+     * @return Συλλογή μόνο για ανάγνωση
+     */
+    default Collection<T> snapshot() {
+        return List.copyOf(values());
+    }
+
+    /**
+     * Επιστρέφει έως {@code limit} αντικείμενα ξεκινώντας από τη θέση {@code from}
+     * της σειράς εισαγωγής, χωρίς να διατρέχει τα επόμενα.
+     * <p>Η προεπιλεγμένη υλοποίηση προσπερνά τα πρώτα {@code from} μέσω του {@link #values()}·
+     * οι υλοποιήσεις με πίνακα θέσεων την αντικαθιστούν με φθηνότερη μετάβαση.</p>
+     *
+     * @param from Θέση του πρώτου αντικειμένου (από 0)
+     * @param limit Μέγιστο πλήθος αντικειμένων
+     * @return Λίστα με τα αντικείμενα της σελίδας (κενή αν {@code from >= size()})
+     */
+    default List<T> slice(int from, int limit) {
+        List<T> page = new ArrayList<>(Math.min(limit, Math.max(0, size() - from)));
+        Iterator<T> it = values().iterator();
+        for (int i = 0; i < from && it.hasNext(); i++) it.next();
+        while (page.size() < limit && it.hasNext()) page.add(it.next());
+        return page;
+    }
+}
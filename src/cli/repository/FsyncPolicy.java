@@ -0,0 +1,16 @@
+package cli.repository;
+
+/**
+ * Πολιτική συγχρονισμού ({@code fsync}) των εγγραφών του journal στον δίσκο.
+ */
+public enum FsyncPolicy {
+
+    /** Κάθε εγγραφή γίνεται {@code force} πριν επιστρέψει η {@code save(T)}/{@code delete(int)}. */
+    ALWAYS,
+
+    /** Γίνεται {@code force} ανά ομάδα εγγραφών (βλ. μέγεθος batch του journal). */
+    BATCH,
+
+    /** Ο συγχρονισμός αφήνεται στο λειτουργικό σύστημα. */
+    NONE
+}
@@ -0,0 +1,89 @@
+package cli.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ακολουθία κωδικών ενός {@link CsvRepository}.
+ * <p>Κρατά στη μνήμη τον τελευταίο κωδικό που δόθηκε, ώστε η δέσμευση να είναι O(1)
+ * και ασφαλής για πολλά νήματα. Αποθηκεύεται σε sidecar αρχείο ({@code <αρχείο>.seq}),
+ * οπότε κωδικοί που διαγράφηκαν, ακόμη και ο μέγιστος, δεν ξαναδίνονται.</p>
+ */
+final class IdSequence {
+
+    private final Path path;
+    private final AtomicInteger last = new AtomicInteger();
+
+    /**
+     * @param path Διαδρομή του sidecar αρχείου
+     */
+    IdSequence(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Διαβάζει την αποθηκευμένη τιμή, αν υπάρχει.
+     */
+    void load() {
+        if (!Files.exists(path)) return;
+        try {
+            String s = Files.readString(path).trim();
+            if (!s.isEmpty()) advanceTo(Integer.parseInt(s));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Αποθηκεύει ατομικά την τρέχουσα τιμή στο sidecar αρχείο.
+     */
+    void store() {
+        try {
+            byte[] value = Integer.toString(last.get()).getBytes(StandardCharsets.US_ASCII);
+            AtomicFiles.replace(path, out -> out.write(value));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Δεσμεύει τον επόμενο κωδικό.
+     *
+     * @return Νέος κωδικός
+     */
+    int next() {
+        return last.incrementAndGet();
+    }
+
+    /**
+     * Δεσμεύει ατομικά {@code count} διαδοχικούς κωδικούς.
+     *
+     * @param count Πλήθος κωδικών
+     * @return Ο πρώτος κωδικός του μπλοκ
+     */
+    int nextBlock(int count) {
+        if (count < 1) throw new IllegalArgumentException("count < 1");
+        return last.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Εξασφαλίζει ότι η ακολουθία δεν θα δώσει κωδικό μικρότερο ή ίσο του {@code id}.
+     *
+     * @param id Κωδικός που είναι ήδη σε χρήση
+     */
+    void advanceTo(int id) {
+        if (id > last.get()) last.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Επιστρέφει τον τελευταίο κωδικό που δόθηκε.
+     *
+     * @return Τελευταίος κωδικός
+     */
+    int current() {
+        return last.get();
+    }
+}
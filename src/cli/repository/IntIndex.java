@@ -0,0 +1,160 @@
+package cli.repository;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Πίνακας κατακερματισμού {@code int → int} με ανοιχτή διευθυνσιοδότηση (linear probing),
+ * χωρίς boxing και χωρίς κόμβους ανά εγγραφή.
+ * <p>Οι τιμές πρέπει να είναι μη αρνητικές· η {@link #get(int)} επιστρέφει {@code -1}
+ * όταν το κλειδί δεν υπάρχει. Η διαγραφή γίνεται με backward shift, χωρίς tombstones.</p>
+ */
+public final class IntIndex {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    /** Τιμή + 1· το {@code 0} σημαίνει κενή θέση. */
+    private int[] vals;
+    private int mask;
+    private int size;
+
+    /** Δημιουργεί κενό πίνακα. */
+    public IntIndex() {
+        this(16);
+    }
+
+    /**
+     * @param expected Αναμενόμενο πλήθος κλειδιών
+     */
+    public IntIndex(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        keys = new int[cap];
+        vals = new int[cap];
+        mask = cap - 1;
+    }
+
+    /** @return Πλήθος κλειδιών */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key Κλειδί
+     * @return Η τιμή του κλειδιού ή {@code -1} αν δεν υπάρχει
+     */
+    public int get(int key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (vals[i] == 0) return -1;
+            if (keys[i] == key) return vals[i] - 1;
+        }
+    }
+
+    /**
+     * @param key Κλειδί
+     * @return {@code true} αν το κλειδί υπάρχει
+     */
+    public boolean contains(int key) {
+        return get(key) >= 0;
+    }
+
+    /**
+     * Ορίζει την τιμή ενός κλειδιού.
+     *
+     * @param key Κλειδί
+     * @param value Μη αρνητική τιμή
+     * @return Η προηγούμενη τιμή ή {@code -1}
+     */
+    public int put(int key, int value) {
+        if (value < 0) throw new IllegalArgumentException("value < 0");
+        int i = slot(key);
+        for (; vals[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int old = vals[i] - 1;
+                vals[i] = value + 1;
+                return old;
+            }
+        }
+        keys[i] = key;
+        vals[i] = value + 1;
+        if (++size > (mask + 1) * LOAD_FACTOR) resize((mask + 1) << 1);
+        return -1;
+    }
+
+    /**
+     * Αφαιρεί ένα κλειδί.
+     *
+     * @param key Κλειδί
+     * @return Η τιμή που είχε ή {@code -1} αν δεν υπήρχε
+     */
+    public int remove(int key) {
+        int i = slot(key);
+        for (; ; i = (i + 1) & mask) {
+            if (vals[i] == 0) return -1;
+            if (keys[i] == key) break;
+        }
+        int old = vals[i] - 1;
+        /* backward shift: μετακινούμε πίσω όσα στοιχεία της αλυσίδας μπορούν να πάνε στην κενή θέση */
+        int gap = i;
+        for (int j = (i + 1) & mask; vals[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                vals[gap] = vals[j];
+                gap = j;
+            }
+        }
+        vals[gap] = 0;
+        size--;
+        return old;
+    }
+
+    /**
+     * Καλεί τον δοθέντα καταναλωτή για κάθε κλειδί, σε απροσδιόριστη σειρά.
+     *
+     * @param action Ενέργεια ανά κλειδί
+     */
+    public void forEachKey(IntConsumer action) {
+        for (int i = 0; i < vals.length; i++) if (vals[i] != 0) action.accept(keys[i]);
+    }
+
+    /**
+     * Καλεί τον δοθέντα καταναλωτή για κάθε ζεύγος κλειδιού/τιμής, σε απροσδιόριστη σειρά.
+     *
+     * @param action Ενέργεια ανά ζεύγος
+     */
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < vals.length; i++) if (vals[i] != 0) action.accept(keys[i], vals[i] - 1);
+    }
+
+    /** Ενέργεια πάνω σε ζεύγος κλειδιού/τιμής, χωρίς boxing. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    /** Αδειάζει τον πίνακα. */
+    public void clear() {
+        Arrays.fill(vals, 0);
+        size = 0;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize(int cap) {
+        int[] oldKeys = keys, oldVals = vals;
+        keys = new int[cap];
+        vals = new int[cap];
+        mask = cap - 1;
+        for (int i = 0; i < oldVals.length; i++) {
+            if (oldVals[i] == 0) continue;
+            int j = slot(oldKeys[i]);
+            while (vals[j] != 0) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            vals[j] = oldVals[i];
+        }
+    }
+}
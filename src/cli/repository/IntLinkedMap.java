@@ -0,0 +1,283 @@
+package cli.repository;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Χάρτης {@code int → V} που διατηρεί τη σειρά εισαγωγής, χωρίς boxing κλειδιών
+ * και χωρίς κόμβο {@code Entry} ανά εγγραφή.
+ * <p>Οι τιμές κρατούνται σε πυκνούς πίνακες με τη σειρά εισαγωγής, χωρισμένους σε τμήματα
+ * των {@value #CHUNK} θέσεων· ένα {@link IntIndex} αντιστοιχίζει κάθε κλειδί στη θέση του.
+ * Οι διαγραφές αφήνουν κενή θέση, η οποία συμπτύσσεται όταν οι κενές θέσεις ξεπεράσουν
+ * τις μισές.</p>
+ * <p>Τα στιγμιότυπα ({@link #snapshot()}) είναι copy-on-write ανά τμήμα: κρατούν αντίγραφο
+ * μόνο του καταλόγου των τμημάτων και η πρώτη εγγραφή σε ένα κοινό τμήμα (αλλαγή, διαγραφή
+ * ή προσθήκη στο τελευταίο τμήμα) αντιγράφει μόνο αυτό το τμήμα.</p>
+ *
+ * @param <V> Τύπος τιμών (όχι {@code null})
+ */
+final class IntLinkedMap<V> implements EntityStore<V> {
+
+    private static final int SHIFT = 10;
+    /** Θέσεις ανά τμήμα. */
+    private static final int CHUNK = 1 << SHIFT;
+    private static final int MASK = CHUNK - 1;
+
+    private final IntIndex index = new IntIndex();
+    private int[] keys = new int[16];
+    private Object[][] chunks = { new Object[16] };
+    /** Η εποχή στην οποία αντιγράφηκε ή δημιουργήθηκε κάθε τμήμα. */
+    private long[] chunkEpoch = { 0 };
+    /** Αυξάνεται σε κάθε στιγμιότυπο· τμήμα παλαιότερης εποχής είναι κοινό με στιγμιότυπο. */
+    private final AtomicLong epoch = new AtomicLong();
+    private int used;
+    private int size;
+    private int modCount;
+
+    /** @return Πλήθος εγγραφών */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key Κλειδί
+     * @return Η τιμή ή {@code null} αν δεν υπάρχει
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int pos = index.get(key);
+        return pos < 0 ? null : (V) chunks[pos >>> SHIFT][pos & MASK];
+    }
+
+    /**
+     * Εισάγει ή αντικαθιστά τιμή· μια νέα εγγραφή μπαίνει στο τέλος της σειράς.
+     *
+     * @param key Κλειδί
+     * @param value Τιμή
+     * @return Η προηγούμενη τιμή ή {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int pos = index.get(key);
+        if (pos >= 0) {
+            Object[] chunk = writable(pos >>> SHIFT);
+            V old = (V) chunk[pos & MASK];
+            chunk[pos & MASK] = value;
+            return old;
+        }
+        if (used == keys.length) grow();
+        keys[used] = key;
+        /* και η προσθήκη περνά από writable: μετά από compaction η θέση μπορεί να ανήκει σε στιγμιότυπο */
+        writable(used >>> SHIFT)[used & MASK] = value;
+        index.put(key, used++);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * Αφαιρεί εγγραφή.
+     *
+     * @param key Κλειδί
+     * @return Η τιμή που αφαιρέθηκε ή {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int pos = index.remove(key);
+        if (pos < 0) return null;
+        Object[] chunk = writable(pos >>> SHIFT);
+        V old = (V) chunk[pos & MASK];
+        chunk[pos & MASK] = null;
+        size--;
+        modCount++;
+        if (used > 64 && used - size > used / 2) compact();
+        return old;
+    }
+
+    /** Αδειάζει τον χάρτη. */
+    @Override
+    public void clear() {
+        index.clear();
+        /* νέα τμήματα αντί για μηδενισμό, ώστε να μένουν άθικτα τυχόν στιγμιότυπα */
+        chunks = new Object[][] { new Object[16] };
+        chunkEpoch = new long[] { epoch.get() };
+        keys = new int[16];
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Επιστρέφει όψη των τιμών με τη σειρά εισαγωγής.
+     *
+     * @return Συλλογή μόνο για ανάγνωση
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override public Iterator<V> iterator() { return new Values(); }
+            @Override public int size()             { return size; }
+        };
+    }
+
+    /**
+     * Στιγμιότυπο σε O(πλήθος τμημάτων): αντιγράφεται μόνο ο κατάλογος των τμημάτων και τα
+     * ίδια τα τμήματα μοιράζονται έως την επόμενη αλλαγή τους.
+     */
+    @Override
+    public Collection<V> snapshot() {
+        Object[][] view = Arrays.copyOf(chunks, (used + MASK) >>> SHIFT);
+        int end = used, count = size;
+        /* μετά την αύξηση, κάθε υπάρχον τμήμα θεωρείται κοινό */
+        epoch.incrementAndGet();
+        return new AbstractCollection<>() {
+            @Override public Iterator<V> iterator() { return new Snapshot<>(view, end); }
+            @Override public int size()             { return count; }
+        };
+    }
+
+    /**
+     * Χωρίς κενές θέσεις η σελίδα ξεκινά κατευθείαν από το {@code from}· αλλιώς
+     * μετρώνται μόνο οι κατειλημμένες θέσεις του πίνακα, χωρίς διάσχιση τιμών.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> slice(int from, int limit) {
+        int pos = 0;
+        if (used == size) pos = from;
+        else for (int skipped = 0; pos < used && skipped < from; pos++) if (value(pos) != null) skipped++;
+        List<V> page = new ArrayList<>(Math.max(0, Math.min(limit, size - from)));
+        for (; pos < used && page.size() < limit; pos++) {
+            Object v = value(pos);
+            if (v != null) page.add((V) v);
+        }
+        return page;
+    }
+
+    private Object value(int pos) {
+        return chunks[pos >>> SHIFT][pos & MASK];
+    }
+
+    /** Επιστρέφει το τμήμα για εγγραφή, αντιγράφοντάς το αν είναι κοινό με στιγμιότυπο. */
+    private Object[] writable(int c) {
+        long now = epoch.get();
+        if (chunkEpoch[c] != now) {
+            chunks[c] = chunks[c].clone();
+            chunkEpoch[c] = now;
+        }
+        return chunks[c];
+    }
+
+    /**
+     * Διπλασιάζει τη χωρητικότητα: ως {@value #CHUNK} θέσεις μεγαλώνει το μοναδικό τμήμα,
+     * μετά προστίθενται νέα τμήματα χωρίς να αντιγράφονται τα υπάρχοντα.
+     */
+    private void grow() {
+        int cap = keys.length << 1;
+        keys = Arrays.copyOf(keys, cap);
+        long now = epoch.get();
+        if (cap <= CHUNK) {
+            chunks[0] = Arrays.copyOf(chunks[0], cap);
+            chunkEpoch[0] = now;
+            return;
+        }
+        int have = chunks.length, need = cap >>> SHIFT;
+        if (chunks[have - 1].length < CHUNK) {
+            chunks[have - 1] = Arrays.copyOf(chunks[have - 1], CHUNK);
+            chunkEpoch[have - 1] = now;
+        }
+        chunks = Arrays.copyOf(chunks, need);
+        chunkEpoch = Arrays.copyOf(chunkEpoch, need);
+        for (int c = have; c < need; c++) {
+            chunks[c] = new Object[CHUNK];
+            chunkEpoch[c] = now;
+        }
+    }
+
+    /** Μετακινεί τις ζωντανές εγγραφές στην αρχή, κρατώντας τη σειρά τους. */
+    private void compact() {
+        int w = 0;
+        for (int r = 0; r < used; r++) {
+            Object v = value(r);
+            if (v == null) continue;
+            if (w != r) {
+                keys[w] = keys[r];
+                writable(w >>> SHIFT)[w & MASK] = v;
+                index.put(keys[w], w);
+            }
+            w++;
+        }
+        for (int r = w; r < used; r++) if (value(r) != null) writable(r >>> SHIFT)[r & MASK] = null;
+        used = w;
+    }
+
+    private final class Values implements Iterator<V> {
+        private final int expected = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < used && value(from) == null) from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < used;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expected) throw new ConcurrentModificationException();
+            if (next >= used) throw new NoSuchElementException();
+            V v = (V) value(next);
+            next = advance(next + 1);
+            return v;
+        }
+    }
+
+    /** Διάσχιση στιγμιότυπου· δεν επηρεάζεται από μεταγενέστερες αλλαγές του χάρτη. */
+    private static final class Snapshot<V> implements Iterator<V> {
+        private final Object[][] chunks;
+        private final int end;
+        private int next;
+
+        Snapshot(Object[][] chunks, int end) {
+            this.chunks = chunks;
+            this.end = end;
+            this.next = advance(0);
+        }
+
+        private int advance(int from) {
+            while (from < end && chunks[from >>> SHIFT][from & MASK] == null) from++;
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next >= end) throw new NoSuchElementException();
+            V v = (V) chunks[next >>> SHIFT][next & MASK];
+            next = advance(next + 1);
+            return v;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package cli.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Append-only journal (write-ahead log) ενός {@link CsvRepository}.
+ * <p>Κάθε μεταβολή γράφεται ως μία γραμμή: {@code +|<εγγραφή>} για upsert,
+ * {@code -|<id>} για διαγραφή (tombstone) και {@code #|<id>} για δέσμευση μπλοκ κωδικών. Μια μισογραμμένη τελευταία
+ * γραμμή (π.χ. μετά από crash) αγνοείται κατά το replay και αποκόπτεται.</p>
+ * <p>Μια ομάδα upserts που πρέπει να εφαρμοστεί ολόκληρη ή καθόλου γράφεται με μία εγγραφή
+ * ως {@code *|<πλήθος>} ακολουθούμενο από τις γραμμές της· αν στο replay η ομάδα βρεθεί
+ * ελλιπής, αγνοείται και αποκόπτεται όπως μια μισογραμμένη γραμμή.</p>
+ * <p>Πριν από κάθε compaction το τρέχον αρχείο μετονομάζεται σε {@code <journal>.1}
+ * ({@link #rotate()}), ώστε οι νέες μεταβολές να συνεχίζουν σε νέο αρχείο όσο γράφεται
+ * το CSV· το παλιό τμήμα διαγράφεται μόνο αφού το CSV γραφτεί επιτυχώς.</p>
+ */
+final class Journal {
+
+    private static final char UPSERT = '+';
+    private static final char DELETE = '-';
+    private static final char SEQUENCE = '#';
+    private static final char BATCH = '*';
+
+    private final Path path;
+    private final Path rotated;
+    private final FsyncPolicy policy;
+    private final int batchSize;
+
+    private FileChannel channel;
+    private long validLength = Long.MAX_VALUE;
+    /** Το έγκυρο μήκος του {@code <journal>.1}, όπως το βρήκε το replay. */
+    private long rotatedLength = Long.MAX_VALUE;
+    private int records;
+    private int unsynced;
+
+    /**
+     * @param path Διαδρομή του αρχείου journal
+     * @param policy Πολιτική fsync
+     * @param batchSize Πλήθος εγγραφών ανά fsync για την {@link FsyncPolicy#BATCH}
+     */
+    Journal(Path path, FsyncPolicy policy, int batchSize) {
+        this.path = path;
+        this.rotated = path.resolveSibling(path.getFileName() + ".1");
+        this.policy = policy;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Εφαρμόζει με τη σειρά όλες τις έγκυρες εγγραφές του journal.
+     *
+     * @param upsert Καλείται με τη γραμμή CSV κάθε upsert
+     * @param delete Καλείται με τον κωδικό κάθε διαγραφής
+     * @param sequence Καλείται με τον μέγιστο κωδικό κάθε δεσμευμένου μπλοκ
+     */
+    void replay(Consumer<String> upsert, IntConsumer delete, IntConsumer sequence) {
+        records = 0;
+        rotatedLength = replay(rotated, upsert, delete, sequence);
+        validLength = replay(path, upsert, delete, sequence);
+    }
+
+    /**
+     * Εφαρμόζει τις έγκυρες εγγραφές ενός αρχείου.
+     *
+     * @return Το μήκος του έγκυρου τμήματος του αρχείου
+     */
+    private long replay(Path file, Consumer<String> upsert, IntConsumer delete, IntConsumer sequence) {
+        if (!Files.exists(file)) return 0;
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            int start = 0;
+            /* εκκρεμής ομάδα: οι γραμμές της εφαρμόζονται μόνο όταν διαβαστούν όλες */
+            List<String> batch = null;
+            int batchStart = 0, batchSize = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != '\n') continue;
+                if (i - start >= 2) {
+                    String body = new String(bytes, start + 2, i - start - 2, StandardCharsets.UTF_8);
+                    if (batch != null && bytes[start] == UPSERT) {
+                        batch.add(body);
+                    } else if (bytes[start] == BATCH) {
+                        batch = new ArrayList<>(batchSize = Integer.parseInt(body));
+                        batchStart = start;
+                    } else {
+                        if (bytes[start] == UPSERT) upsert.accept(body);
+                        else if (bytes[start] == DELETE) delete.accept(Integer.parseInt(body));
+                        else if (bytes[start] == SEQUENCE) sequence.accept(Integer.parseInt(body));
+                        records++;
+                    }
+                    if (batch != null && batch.size() == batchSize) {
+                        batch.forEach(upsert);
+                        records += batchSize;
+                        batch = null;
+                    }
+                }
+                start = i + 1;
+            }
+            return batch != null ? batchStart : start;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Καταγράφει upsert της δοθείσας γραμμής CSV. */
+    void appendUpsert(CharSequence record) {
+        append(new StringBuilder(record.length() + 3).append(UPSERT).append('|').append(record).append('\n'));
+    }
+
+    /**
+     * Καταγράφει με μία εγγραφή μια ομάδα upserts που εφαρμόζεται στο replay ολόκληρη ή καθόλου.
+     *
+     * @param rows Οι εγγραφές
+     * @param encoder Κωδικοποίηση μιας εγγραφής ως γραμμή CSV
+     * @param <T> Τύπος εγγραφών
+     */
+    <T> void appendUpserts(Collection<T> rows, BiConsumer<T, StringBuilder> encoder) {
+        if (rows.isEmpty()) return;
+        StringBuilder sb = new StringBuilder(rows.size() * 48 + 16).append(BATCH).append('|').append(rows.size()).append('\n');
+        for (T t : rows) {
+            sb.append(UPSERT).append('|');
+            encoder.accept(t, sb);
+            sb.append('\n');
+        }
+        append(sb, rows.size());
+    }
+
+    /** Καταγράφει διαγραφή (tombstone) του δοθέντος κωδικού. */
+    void appendDelete(int id) {
+        append(new StringBuilder(16).append(DELETE).append('|').append(id).append('\n'));
+    }
+
+    /**
+     * Καταγράφει ότι έχουν δεσμευτεί κωδικοί έως και τον δοθέντα. Η εγγραφή δεν κάνει δικό
+     * της fsync: αρκεί να φτάσει στον δίσκο μαζί με την πρώτη εγγραφή που χρησιμοποιεί τους
+     * κωδικούς, και το fsync εκείνης καλύπτει και όσα γράφτηκαν πριν από αυτήν.
+     */
+    void appendSequence(int last) {
+        append(new StringBuilder(16).append(SEQUENCE).append('|').append(last).append('\n'), 1, false);
+    }
+
+    /**
+     * Επιστρέφει το πλήθος εγγραφών από την τελευταία {@link #rotate()}.
+     *
+     * @return Πλήθος εγγραφών
+     */
+    synchronized int records() {
+        return records;
+    }
+
+    /**
+     * Μεταφέρει τις τρέχουσες εγγραφές στο τμήμα {@code <journal>.1} και ξεκινά νέο αρχείο.
+     * Αν το τμήμα υπάρχει ήδη (προηγούμενο compaction απέτυχε), οι εγγραφές προστίθενται
+     * στο τέλος του, ώστε η σειρά του replay να διατηρείται· πρώτα αποκόπτεται τυχόν
+     * μισογραμμένη ουρά του τμήματος (crash σε προηγούμενη προσθήκη), ώστε να μην
+     * κολλήσει πάνω της η πρώτη νέα εγγραφή.
+     */
+    synchronized void rotate() {
+        try {
+            if (Files.exists(path)) {
+                channel();
+                close();
+                if (Files.exists(rotated)) {
+                    try (FileChannel ch = FileChannel.open(rotated, StandardOpenOption.WRITE)) {
+                        if (ch.size() > rotatedLength) ch.truncate(rotatedLength);
+                        ch.position(ch.size());
+                        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+                        while (buf.hasRemaining()) ch.write(buf);
+                        ch.force(false);
+                        rotatedLength = ch.size();
+                    }
+                    Files.delete(path);
+                } else {
+                    Files.move(path, rotated, StandardCopyOption.ATOMIC_MOVE);
+                    rotatedLength = Files.size(rotated);
+                }
+            }
+            records = 0;
+            validLength = 0;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Διαγράφει το τμήμα που μεταφέρθηκε με {@link #rotate()}, μετά από επιτυχές compaction.
+     */
+    synchronized void discardRotated() {
+        try {
+            Files.deleteIfExists(rotated);
+            rotatedLength = 0;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Κλείνει το αρχείο, αφού συγχρονίσει ό,τι εκκρεμεί. */
+    synchronized void close() {
+        if (channel == null) return;
+        try {
+            if (unsynced > 0 && policy != FsyncPolicy.NONE) channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            channel = null;
+            unsynced = 0;
+        }
+    }
+
+    private void append(CharSequence line) {
+        append(line, 1);
+    }
+
+    private void append(CharSequence lines, int count) {
+        append(lines, count, true);
+    }
+
+    private synchronized void append(CharSequence lines, int count, boolean sync) {
+        try {
+            FileChannel ch = channel();
+            ByteBuffer buf = StandardCharsets.UTF_8.encode(CharBuffer.wrap(lines));
+            while (buf.hasRemaining()) ch.write(buf);
+            records += count;
+            unsynced += count;
+            if (sync && (policy == FsyncPolicy.ALWAYS || (policy == FsyncPolicy.BATCH && unsynced >= batchSize))) {
+                ch.force(false);
+                unsynced = 0;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            /* αποκοπή τυχόν μισογραμμένης ουράς από προηγούμενο crash */
+            if (channel.size() > validLength) channel.truncate(validLength);
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+}
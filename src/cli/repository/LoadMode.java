@@ -0,0 +1,16 @@
+package cli.repository;
+
+/**
+ * Τρόπος φόρτωσης του βασικού αρχείου CSV από το {@link CsvRepository#load(LoadMode)}.
+ */
+public enum LoadMode {
+
+    /** Ανάγνωση γραμμή-γραμμή σε ένα νήμα. */
+    SEQUENTIAL,
+
+    /**
+     * Memory-mapped ανάγνωση, διαμέριση σε τμήματα στα όρια γραμμών και παράλληλη
+     * ανάλυση των τμημάτων σε fork-join pool, με διατήρηση της σειράς του αρχείου.
+     */
+    PARALLEL
+}
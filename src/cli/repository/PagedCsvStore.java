@@ -0,0 +1,540 @@
+package cli.repository;
+
+import cli.codec.RecordCodec;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Αποθήκη που διαβάζει τις εγγραφές κατ' απαίτηση από το ίδιο το αρχείο CSV.
+ * <p>Στη μνήμη κρατούνται μόνο ο κωδικός, η θέση (byte offset) και το μήκος κάθε γραμμής,
+ * μια προσωρινή μνήμη LRU με τα αντικείμενα που διαβάστηκαν πρόσφατα και τα αντικείμενα
+ * που μεταβλήθηκαν μετά το τελευταίο compaction (όσα και οι εγγραφές του journal). Έτσι
+ * η κατανάλωση heap καθορίζεται από το μέγεθος της cache και όχι του αρχείου.</p>
+ * <p>Το ευρετήριο θέσεων αποθηκεύεται στο {@code <αρχείο>.idx} και ξαναχτίζεται με σάρωση
+ * του CSV μόνο όταν το CSV έχει αλλάξει από τότε που γράφτηκε.</p>
+ * <p>Χρήση: {@code new CsvRepository<>("bookings.csv", BookingCodec.DESCRIPTOR, new PagedCsvStore<>(10_000))}.
+ * Σε αυτή τη λειτουργία το {@link CsvRepository#findAll()} επιστρέφει συλλογή που διαβάζει
+ * το αρχείο σταδιακά κατά τη διάσχιση.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ */
+public final class PagedCsvStore<T> implements EntityStore<T> {
+
+    /** Magic αριθμός του αρχείου ευρετηρίου ({@code "KTIX"}). */
+    private static final int MAGIC = 0x4B544958;
+    private static final int VERSION = 1;
+
+    /** Θέση γραμμής που υπάρχει μόνο στη μνήμη (νέα εγγραφή πριν από compaction). */
+    private static final long IN_MEMORY = -1;
+    /** Θέση γραμμής που διαγράφηκε. */
+    private static final long DEAD = -2;
+
+    /** Πλήθος εγγραφών που διαβάζει η διάσχιση ανά λήψη του κλειδώματος ανάγνωσης. */
+    private static final int PAGE = 256;
+
+    private final Map<Integer, T> cache;
+    private final IntLinkedMap<T> overlay = new IntLinkedMap<>();
+    private final IntIndex slotOf = new IntIndex();
+    private int[] ids = new int[16];
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private int slots;
+    private int live;
+    private int dead;
+    /** Αυξάνεται όταν οι θέσεις αναριθμούνται (απομάκρυνση διαγραμμένων). */
+    private int layout;
+    /**
+     * Αν οι κωδικοί των θέσεων είναι αύξοντες (ισχύει όταν δίνονται από την ακολουθία του
+     * αποθετηρίου), ώστε η διάσχιση να βρίσκει τη θέση συνέχειας με δυαδική αναζήτηση.
+     */
+    private boolean ascending = true;
+    /** Αυξάνεται κάθε φορά που το αρχείο αντικαθίσταται. */
+    private int fileVersion;
+
+    private Path path;
+    private RecordCodec<T> codec;
+    private FileChannel channel;
+
+    /**
+     * @param cacheSize Μέγιστο πλήθος αντικειμένων στην προσωρινή μνήμη LRU
+     */
+    public PagedCsvStore(int cacheSize) {
+        if (cacheSize < 1) throw new IllegalArgumentException("cacheSize < 1");
+        this.cache = new LinkedHashMap<>(Math.min(cacheSize, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Συνδέει την αποθήκη με το αρχείο CSV: φορτώνει το ευρετήριο θέσεων από το
+     * {@code .idx} ή, αν αυτό λείπει ή είναι παλιό, το χτίζει σαρώνοντας το CSV.
+     *
+     * @param file Το αρχείο CSV
+     * @param codec Codec των εγγραφών
+     */
+    void open(Path file, RecordCodec<T> codec) {
+        this.path = file;
+        this.codec = codec;
+        clear();
+        if (!Files.exists(file)) return;
+        try {
+            if (!readIndex()) {
+                scan();
+                writeIndex();
+            }
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** @return Ο μέγιστος κωδικός που υπάρχει στο αρχείο ή στη μνήμη (0 αν δεν υπάρχει κανένας) */
+    int maxId() {
+        int max = 0;
+        for (int s = 0; s < slots; s++) if (offsets[s] != DEAD) max = Math.max(max, ids[s]);
+        return max;
+    }
+
+    @Override
+    public T get(int id) {
+        T t = overlay.get(id);
+        if (t != null) return t;
+        int slot = slotOf.get(id);
+        if (slot < 0) return null;
+        synchronized (cache) {
+            t = cache.get(id);
+        }
+        if (t != null) return t;
+        t = read(slot);
+        synchronized (cache) {
+            cache.put(id, t);
+        }
+        return t;
+    }
+
+    @Override
+    public T put(int id, T t) {
+        T previous = get(id);
+        if (slotOf.get(id) < 0) {
+            addSlot(id, IN_MEMORY, 0);
+            live++;
+        }
+        overlay.put(id, t);
+        synchronized (cache) {
+            cache.remove(id);
+        }
+        return previous;
+    }
+
+    @Override
+    public T remove(int id) {
+        T previous = get(id);
+        if (previous == null) return null;
+        offsets[slotOf.remove(id)] = DEAD;
+        overlay.remove(id);
+        synchronized (cache) {
+            cache.remove(id);
+        }
+        live--;
+        dead++;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public void clear() {
+        overlay.clear();
+        slotOf.clear();
+        synchronized (cache) {
+            cache.clear();
+        }
+        slots = live = dead = 0;
+        ascending = true;
+        layout++;
+        closeChannel();
+    }
+
+    /**
+     * Όψη όλων των αντικειμένων με τη σειρά του αρχείου· η διάσχιση διαβάζει το αρχείο
+     * σειριακά και δεν γεμίζει την cache.
+     * <p>Δεν είναι ασφαλής παράλληλα με μεταβολές· βλ. {@link #pages(Lock)}.</p>
+     */
+    @Override
+    public Collection<T> values() {
+        return new AbstractCollection<>() {
+            @Override public Iterator<T> iterator() { return new Cursor(null); }
+            @Override public int size()             { return live; }
+        };
+    }
+
+    /**
+     * Όψη όλων των αντικειμένων που διαβάζεται σε σελίδες των {@value #PAGE} εγγραφών,
+     * κάθε μία υπό το δοθέν κλείδωμα ανάγνωσης. Η διάσχιση είναι weakly consistent:
+     * βλέπει μεταβολές που έγιναν μετά την έναρξή της, αλλά ποτέ μισή μεταβολή, και
+     * συνεχίζει σωστά μετά από compaction με βάση τη σειρά των κωδικών. Μόνο αν οι κωδικοί
+     * του αρχείου δεν είναι αύξοντες (π.χ. CSV αλλαγμένο με το χέρι) και ο τελευταίος
+     * κωδικός μιας σελίδας διαγραφεί πριν από compaction, προκαλεί
+     * {@link ConcurrentModificationException}.
+     *
+     * @param readLock Το κλείδωμα ανάγνωσης του αποθετηρίου
+     * @return Συλλογή μόνο για ανάγνωση
+     */
+    Collection<T> pages(Lock readLock) {
+        return new AbstractCollection<>() {
+            @Override public Iterator<T> iterator() { return new Cursor(readLock); }
+            @Override
+            public int size() {
+                readLock.lock();
+                try {
+                    return live;
+                } finally {
+                    readLock.unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Διαβάζει από το αρχείο μόνο τις γραμμές της σελίδας· οι θέσεις πριν από αυτήν
+     * προσπερνώνται στον πίνακα θέσεων χωρίς ανάγνωση.
+     */
+    @Override
+    public List<T> slice(int from, int limit) {
+        int slot = 0;
+        if (dead == 0) slot = from;
+        else for (int skipped = 0; slot < slots && skipped < from; slot++) if (offsets[slot] != DEAD) skipped++;
+        List<T> page = new ArrayList<>(Math.max(0, Math.min(limit, live - from)));
+        for (; slot < slots && page.size() < limit; slot++) if (offsets[slot] != DEAD) page.add(get(ids[slot]));
+        return page;
+    }
+
+    /**
+     * Ξαναγράφει ατομικά το CSV: οι αμετάβλητες γραμμές αντιγράφονται ως bytes χωρίς
+     * ανάλυση και μόνο οι μεταβλημένες κωδικοποιούνται. Στη συνέχεια οι θέσεις δείχνουν
+     * στο νέο αρχείο, τα μεταβλημένα αντικείμενα αφήνουν τη μνήμη και το {@code .idx}
+     * ενημερώνεται. Καλείται υπό το κλείδωμα εγγραφής του αποθετηρίου.
+     */
+    void rewrite() throws IOException {
+        int[] newIds = new int[Math.max(16, live)];
+        long[] newOffsets = new long[newIds.length];
+        int[] newLengths = new int[newIds.length];
+        AtomicFiles.replace(path, out -> {
+            Window in = new Window();
+            StringBuilder sb = new StringBuilder(256);
+            byte[] raw = new byte[256];
+            long pos = 0;
+            int k = 0;
+            for (int s = 0; s < slots; s++) {
+                if (offsets[s] == DEAD) continue;
+                T changed = overlay.get(ids[s]);
+                int len;
+                if (changed != null) {
+                    sb.setLength(0);
+                    codec.encode(changed, sb);
+                    raw = sb.toString().getBytes(StandardCharsets.UTF_8);
+                    len = raw.length;
+                } else {
+                    len = lengths[s];
+                    if (raw.length < len) raw = new byte[Math.max(len, raw.length * 2)];
+                    in.read(offsets[s], raw, len);
+                }
+                out.write(raw, 0, len);
+                out.write('\n');
+                newIds[k] = ids[s];
+                newOffsets[k] = pos;
+                newLengths[k++] = len;
+                pos += len + 1;
+            }
+        });
+        closeChannel();
+        ids = newIds;
+        offsets = newOffsets;
+        lengths = newLengths;
+        if (dead > 0) {
+            /* οι διαγραμμένες θέσεις αφαιρέθηκαν· αναριθμούνται οι υπόλοιπες */
+            dead = 0;
+            layout++;
+            slotOf.clear();
+            for (int s = 0; s < live; s++) slotOf.put(ids[s], s);
+        }
+        slots = live;
+        ascending = true;
+        for (int s = 1; s < slots && ascending; s++) ascending = ids[s - 1] < ids[s];
+        overlay.clear();
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        writeIndex();
+    }
+
+    private void addSlot(int id, long offset, int length) {
+        if (slots == ids.length) {
+            int cap = slots * 2;
+            ids = Arrays.copyOf(ids, cap);
+            offsets = Arrays.copyOf(offsets, cap);
+            lengths = Arrays.copyOf(lengths, cap);
+        }
+        if (slots > 0 && ids[slots - 1] >= id) ascending = false;
+        ids[slots] = id;
+        offsets[slots] = offset;
+        lengths[slots] = length;
+        slotOf.put(id, slots++);
+    }
+
+    /** Διαβάζει και αναλύει τη γραμμή μιας θέσης με ανάγνωση σε απόλυτη θέση (ασφαλής για πολλά νήματα). */
+    private T read(int slot) {
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(lengths[slot]);
+            long at = offsets[slot];
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, at + buf.position()) < 0) throw new IOException("Απρόσμενο τέλος αρχείου");
+            }
+            return codec.decode(new String(buf.array(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Σαρώνει το CSV και καταγράφει θέση και μήκος κάθε μη κενής γραμμής, διαβάζοντας
+     * μόνο τον κωδικό (πρώτο πεδίο). Για επαναλαμβανόμενο κωδικό κρατά την τελευταία γραμμή.
+     */
+    private void scan() throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buf = new byte[1 << 16];
+            long pos = 0;
+            long start = 0;
+            int id = 0;
+            boolean inId = true, neg = false, blank = true;
+            byte prev = 0;
+            for (int n; (n = in.read(buf)) > 0; ) {
+                for (int i = 0; i < n; i++, pos++) {
+                    byte b = buf[i];
+                    if (b == '\n') {
+                        long end = prev == '\r' ? pos - 1 : pos;
+                        if (!blank) index(neg ? -id : id, start, (int) (end - start));
+                        start = pos + 1;
+                        id = 0;
+                        inId = blank = true;
+                        neg = false;
+                    } else {
+                        if (b != ' ' && b != '\t' && b != '\r') blank = false;
+                        if (inId) {
+                            if (b == '|') inId = false;
+                            else if (b == '-') neg = true;
+                            else if (b >= '0' && b <= '9') id = id * 10 + (b - '0');
+                        }
+                    }
+                    prev = b;
+                }
+            }
+            long end = prev == '\r' ? pos - 1 : pos;
+            if (!blank) index(neg ? -id : id, start, (int) (end - start));
+        }
+    }
+
+    private void index(int id, long offset, int length) {
+        int slot = slotOf.get(id);
+        if (slot >= 0) {
+            offsets[slot] = offset;
+            lengths[slot] = length;
+        } else {
+            addSlot(id, offset, length);
+            live++;
+        }
+    }
+
+    private Path indexPath() {
+        return path.resolveSibling(path.getFileName() + ".idx");
+    }
+
+    /**
+     * Φορτώνει το ευρετήριο θέσεων, αν αντιστοιχεί στο τρέχον CSV (ίδιο μέγεθος και χρόνος τροποποίησης).
+     *
+     * @return {@code true} αν φορτώθηκε
+     */
+    private boolean readIndex() throws IOException {
+        Path idx = indexPath();
+        if (!Files.exists(idx)) return false;
+        BasicFileAttributes csv = Files.readAttributes(path, BasicFileAttributes.class);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(idx), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != csv.size() || in.readLong() != csv.lastModifiedTime().toMillis()) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                addSlot(in.readInt(), in.readLong(), in.readInt());
+            }
+            live = count;
+            return true;
+        } catch (IOException e) {
+            /* κατεστραμμένο ευρετήριο: ξαναχτίζεται από το CSV */
+            clear();
+            return false;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        BasicFileAttributes csv = Files.readAttributes(path, BasicFileAttributes.class);
+        AtomicFiles.replace(indexPath(), os -> {
+            DataOutputStream out = new DataOutputStream(os);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(csv.size());
+            out.writeLong(csv.lastModifiedTime().toMillis());
+            out.writeInt(live);
+            for (int s = 0; s < slots; s++) {
+                if (offsets[s] < 0) continue;
+                out.writeInt(ids[s]);
+                out.writeLong(offsets[s]);
+                out.writeInt(lengths[s]);
+            }
+            out.flush();
+        });
+    }
+
+    private void closeChannel() {
+        fileVersion++;
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /** Παράθυρο σειριακής ανάγνωσης του αρχείου (read-ahead), για διασχίσεις και compaction. */
+    private final class Window {
+        private final ByteBuffer buf = ByteBuffer.allocate(1 << 20);
+        private long start = -1;
+        private int version = fileVersion;
+
+        void read(long offset, byte[] dst, int len) throws IOException {
+            if (len > buf.capacity()) {
+                ByteBuffer big = ByteBuffer.wrap(dst, 0, len);
+                while (big.hasRemaining()) if (channel.read(big, offset + big.position()) < 0) break;
+                return;
+            }
+            if (version != fileVersion || start < 0 || offset < start || offset + len > start + buf.limit()) {
+                version = fileVersion;
+                buf.clear();
+                while (buf.hasRemaining() && channel.read(buf, offset + buf.position()) >= 0) { }
+                buf.flip();
+                start = offset;
+            }
+            buf.get((int) (offset - start), dst, 0, len);
+        }
+    }
+
+    /** Διάσχιση των θέσεων με τη σειρά, προαιρετικά σε σελίδες υπό κλείδωμα ανάγνωσης. */
+    private final class Cursor implements Iterator<T> {
+        private final Lock readLock;
+        private final Window window = new Window();
+        private final Object[] page = new Object[PAGE];
+        private int pageSize;
+        private int pagePos;
+        private int slot;
+        private int expectedLayout = layout;
+        private int lastId;
+        private boolean started;
+
+        Cursor(Lock readLock) {
+            this.readLock = readLock;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pagePos < pageSize) return true;
+            fill();
+            return pageSize > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return (T) page[pagePos++];
+        }
+
+        private void fill() {
+            if (readLock != null) readLock.lock();
+            try {
+                if (expectedLayout != layout) {
+                    /* οι θέσεις αναριθμήθηκαν από compaction· συνεχίζουμε μετά τον τελευταίο κωδικό */
+                    slot = started ? resume() : 0;
+                    expectedLayout = layout;
+                }
+                Arrays.fill(page, 0, pageSize, null);
+                pageSize = pagePos = 0;
+                byte[] raw = new byte[256];
+                for (; slot < slots && pageSize < PAGE; slot++) {
+                    if (offsets[slot] == DEAD) continue;
+                    T t = overlay.get(ids[slot]);
+                    if (t == null) {
+                        int len = lengths[slot];
+                        if (raw.length < len) raw = new byte[len];
+                        window.read(offsets[slot], raw, len);
+                        t = codec.decode(new String(raw, 0, len, StandardCharsets.UTF_8));
+                    }
+                    page[pageSize++] = t;
+                    lastId = ids[slot];
+                    started = true;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                if (readLock != null) readLock.unlock();
+            }
+        }
+
+        /**
+         * Η πρώτη θέση μετά τον τελευταίο κωδικό που επιστράφηκε, ακόμη κι αν αυτός διαγράφηκε
+         * στο μεταξύ: με αύξοντες κωδικούς, η πρώτη θέση με κωδικό μεγαλύτερο από αυτόν.
+         */
+        private int resume() {
+            if (ascending) {
+                int lo = 0, hi = slots;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (ids[mid] <= lastId) lo = mid + 1;
+                    else hi = mid;
+                }
+                return lo;
+            }
+            /* χωρίς διάταξη, η θέση βρίσκεται μόνο αν ο κωδικός υπάρχει ακόμη */
+            int at = slotOf.get(lastId);
+            if (at < 0) throw new ConcurrentModificationException();
+            return at + 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package cli.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Παράλληλος φορτωτής αρχείων CSV.
+ * <p>Το αρχείο χωρίζεται σε τμήματα που τελειώνουν πάντα σε αλλαγή γραμμής· κάθε τμήμα
+ * γίνεται memory-map και αναλύεται ανεξάρτητα στο {@link ForkJoinPool#commonPool()}.
+ * Τα αποτελέσματα παραδίδονται με τη σειρά του αρχείου.</p>
+ */
+final class ParallelCsvLoader {
+
+    /** Κάτω από αυτό το μέγεθος δεν αξίζει ο διαμερισμός. */
+    private static final long MIN_CHUNK = 1L << 20;
+
+    /** Ανώτατο μέγεθος τμήματος (όριο ενός {@link MappedByteBuffer}). */
+    private static final long MAX_CHUNK = 1L << 30;
+
+    private ParallelCsvLoader() { }
+
+    /**
+     * Αναλύει όλες τις μη κενές γραμμές του αρχείου και τις παραδίδει με τη σειρά του αρχείου.
+     *
+     * @param path Αρχείο CSV
+     * @param parser Συνάρτηση μετατροπής γραμμής σε αντικείμενο
+     * @param sink Αποδέκτης των αντικειμένων, καλείται από το τρέχον νήμα
+     * @param <T> Τύπος αντικειμένων
+     */
+    static <T> void load(Path path, Function<String, T> parser, Consumer<T> sink) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<long[]> chunks = split(ch);
+            List<List<T>> parsed = chunks.parallelStream().map(c -> parse(ch, c[0], c[1], parser)).toList();
+            for (List<T> part : parsed) part.forEach(sink);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Υπολογίζει τα όρια {@code [start, end)} των τμημάτων, ώστε κάθε τμήμα
+     * (εκτός ίσως του τελευταίου) να τελειώνει αμέσως μετά από {@code '\n'}.
+     */
+    private static List<long[]> split(FileChannel ch) throws IOException {
+        long size = ch.size();
+        int parts = ForkJoinPool.getCommonPoolParallelism() * 4;
+        long chunk = Math.min(MAX_CHUNK - 4096, Math.max(MIN_CHUNK, size / parts));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunk);
+            while (end < size) {
+                probe.clear();
+                int n = ch.read(probe, end);
+                int nl = -1;
+                for (int i = 0; i < n; i++) if (probe.get(i) == '\n') { nl = i; break; }
+                if (nl >= 0) { end += nl + 1; break; }
+                end += Math.max(n, 0);
+            }
+            chunks.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static <T> List<T> parse(FileChannel ch, long start, long end, Function<String, T> parser) {
+        try {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            List<T> out = new ArrayList<>();
+            byte[] line = new byte[256];
+            int limit = buf.limit();
+            int from = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && buf.get(i) != '\n') continue;
+                int to = i;
+                if (to > from && buf.get(to - 1) == '\r') to--;
+                int len = to - from;
+                if (len > 0) {
+                    if (len > line.length) line = new byte[Math.max(len, line.length * 2)];
+                    buf.get(from, line, 0, len);
+                    String s = new String(line, 0, len, StandardCharsets.UTF_8);
+                    if (!s.isBlank()) out.add(parser.apply(s));
+                }
+                from = i + 1;
+            }
+            return out;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
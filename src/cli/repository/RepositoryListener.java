@@ -0,0 +1,35 @@
+package cli.repository;
+
+/**
+ * Παρατηρητής των μεταβολών ενός {@link CsvRepository}, π.χ. για ευρετήρια ή στατιστικά
+ * που ενημερώνονται σταδιακά αντί να σαρώνουν όλα τα δεδομένα.
+ * <p>Μετά από κάθε {@link CsvRepository#load()} και κατά την εγγραφή του παρατηρητή
+ * καλείται {@link #reset()} και στη συνέχεια {@link #saved(Object, Object)} για κάθε αντικείμενο.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ */
+public interface RepositoryListener<T> {
+
+    /**
+     * Καλείται μετά την εισαγωγή ή ενημέρωση ενός αντικειμένου.
+     * <p>Το {@code previous} είναι ό,τι επέστρεψε η {@link EntityStore} για τον ίδιο κωδικό·
+     * αν το αντικείμενο άλλαξε επί τόπου, μπορεί να είναι το ίδιο στιγμιότυπο με το
+     * {@code current} και να μην δείχνει πλέον την παλιά κατάσταση.</p>
+     *
+     * @param previous Η προηγούμενη εγγραφή ή {@code null} για εισαγωγή
+     * @param current Η τρέχουσα κατάσταση του αντικειμένου
+     */
+    void saved(T previous, T current);
+
+    /**
+     * Καλείται μετά τη διαγραφή ενός αντικειμένου.
+     *
+     * @param t Το αντικείμενο που διαγράφηκε
+     */
+    void deleted(T t);
+
+    /**
+     * Καλείται πριν από την πλήρη αναδόμηση (μετά από φόρτωση).
+     */
+    void reset();
+}
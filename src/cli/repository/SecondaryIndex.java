@@ -0,0 +1,176 @@
+package cli.repository;
+
+import cli.entity.Identifiable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Μη μοναδικό δευτερεύον ευρετήριο ενός {@link CsvRepository}: αντιστοιχίζει κάθε τιμή
+ * κλειδιού στους κωδικούς των αντικειμένων που την έχουν.
+ * <p>Ενημερώνεται σε κάθε {@code save(T)}/{@code delete(int)} και αναδομείται στο
+ * {@code load()}. Το παλιό κλειδί μιας ενημέρωσης βγαίνει από την προηγούμενη εγγραφή
+ * ({@link RepositoryListener#saved}), οπότε οι αλλαγές πρέπει να γίνονται σε αντίγραφο
+ * ({@link CsvRepository#copyOf}), όχι επί τόπου. Το κλειδί δεν μπορεί να είναι
+ * {@code null}· το αποθετήριο το ελέγχει πριν γράψει οτιδήποτε.</p>
+ * <p>Οι μεταβολές γίνονται υπό το κλείδωμα εγγραφής του αποθετηρίου και τα ερωτήματα υπό
+ * το κλείδωμα ανάγνωσής του. Αν το αποθετήριο φορτώνεται «τεμπέλικα», το πρώτο ερώτημα
+ * προκαλεί τη φόρτωσή του.</p>
+ * <p>Δημιουργείται με {@link CsvRepository#addIndex(String, Function)}.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ * @param <K> Τύπος κλειδιού
+ */
+public class SecondaryIndex<T extends Identifiable, K> implements RepositoryListener<T> {
+
+    private final String name;
+    private final Function<T, K> key;
+    private final IntFunction<T> lookup;
+    private final Lock readLock;
+    private final Runnable ensureLoaded;
+    private final Map<K, IntIndex> postings;
+
+    SecondaryIndex(String name, Function<T, K> key, IntFunction<T> lookup, Lock readLock, Runnable ensureLoaded) {
+        this(name, key, lookup, readLock, ensureLoaded, new HashMap<>());
+    }
+
+    SecondaryIndex(String name, Function<T, K> key, IntFunction<T> lookup, Lock readLock, Runnable ensureLoaded,
+                   Map<K, IntIndex> postings) {
+        this.postings = postings;
+        this.name = name;
+        this.key = key;
+        this.lookup = lookup;
+        this.readLock = readLock;
+        this.ensureLoaded = ensureLoaded;
+    }
+
+    /** @return Όνομα του ευρετηρίου */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Επιστρέφει τους κωδικούς των αντικειμένων με το δοθέν κλειδί, σε αύξουσα σειρά.
+     *
+     * @param k Κλειδί
+     * @return Πίνακας κωδικών (κενός αν δεν υπάρχουν)
+     */
+    public int[] ids(K k) {
+        ensureLoaded.run();
+        readLock.lock();
+        try {
+            IntIndex ids = postings.get(k);
+            if (ids == null) return new int[0];
+            int[] out = new int[ids.size()];
+            int[] n = {0};
+            ids.forEachKey(id -> out[n[0]++] = id);
+            Arrays.sort(out);
+            return out;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει τα αντικείμενα με το δοθέν κλειδί, χωρίς σάρωση του αποθετηρίου.
+     *
+     * @param k Κλειδί
+     * @return Λίστα αντικειμένων σε αύξουσα σειρά κωδικού
+     */
+    public List<T> find(K k) {
+        return query(p -> {
+            IntIndex ids = p.get(k);
+            return ids == null ? List.of() : List.of(ids);
+        });
+    }
+
+    /**
+     * Συλλέγει υπό το κλείδωμα ανάγνωσης τα αντικείμενα των λιστών κωδικών που επιλέγει
+     * η συνάρτηση, με τη σειρά των λιστών και σε αύξουσα σειρά κωδικού μέσα σε κάθε λίστα.
+     *
+     * @param select Επιλογή λιστών κωδικών από τον χάρτη κλειδί → κωδικοί
+     * @return Λίστα αντικειμένων
+     */
+    final List<T> query(Function<Map<K, IntIndex>, Collection<IntIndex>> select) {
+        ensureLoaded.run();
+        readLock.lock();
+        try {
+            List<T> out = new ArrayList<>();
+            for (IntIndex ids : select.apply(postings)) {
+                int[] sorted = new int[ids.size()];
+                int[] n = {0};
+                ids.forEachKey(id -> sorted[n[0]++] = id);
+                Arrays.sort(sorted);
+                for (int id : sorted) {
+                    T t = lookup.apply(id);
+                    if (t != null) out.add(t);
+                }
+            }
+            return out;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Επιστρέφει το πλήθος των αντικειμένων με το δοθέν κλειδί σε O(1).
+     *
+     * @param k Κλειδί
+     * @return Πλήθος
+     */
+    public int count(K k) {
+        ensureLoaded.run();
+        readLock.lock();
+        try {
+            IntIndex ids = postings.get(k);
+            return ids == null ? 0 : ids.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Ελέγχει, πριν από την εγγραφή στο journal, ότι το αντικείμενο έχει κλειδί.
+     *
+     * @throws IllegalArgumentException αν το κλειδί είναι {@code null}
+     */
+    void check(T t) {
+        if (key.apply(t) == null) throw new IllegalArgumentException("Κενό κλειδί ευρετηρίου " + name + " για τον κωδικό " + t.getId());
+    }
+
+    @Override
+    public void saved(T previous, T current) {
+        int id = current.getId();
+        K k = key.apply(current);
+        if (previous != null) {
+            K old = key.apply(previous);
+            if (old.equals(k)) return;
+            unlink(old, id);
+        }
+        postings.computeIfAbsent(k, x -> new IntIndex(4)).put(id, 0);
+    }
+
+    @Override
+    public void deleted(T t) {
+        unlink(key.apply(t), t.getId());
+    }
+
+    @Override
+    public void reset() {
+        postings.clear();
+    }
+
+    private void unlink(K k, int id) {
+        IntIndex ids = postings.get(k);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.size() == 0) postings.remove(k);
+    }
+}
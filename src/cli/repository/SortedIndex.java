@@ -0,0 +1,55 @@
+package cli.repository;
+
+import cli.entity.Identifiable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Ταξινομημένο δευτερεύον ευρετήριο: εκτός από την αναζήτηση ίσου κλειδιού υποστηρίζει
+ * ερωτήματα εύρους (π.χ. «παραστάσεις των επόμενων 7 ημερών») σε O(log n + k), χωρίς
+ * σάρωση του αποθετηρίου.
+ * <p>Δημιουργείται με {@link CsvRepository#addSortedIndex(String, Function)}.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ * @param <K> Τύπος κλειδιού (π.χ. {@link java.time.LocalDate})
+ */
+public final class SortedIndex<T extends Identifiable, K extends Comparable<? super K>> extends SecondaryIndex<T, K> {
+
+    SortedIndex(String name, Function<T, K> key, IntFunction<T> lookup, Lock readLock, Runnable ensureLoaded) {
+        super(name, key, lookup, readLock, ensureLoaded, new TreeMap<>());
+    }
+
+    /**
+     * Επιστρέφει τα αντικείμενα με κλειδί στο κλειστό διάστημα {@code [from, to]},
+     * ταξινομημένα κατά κλειδί και κατόπιν κατά κωδικό.
+     *
+     * @param from Αρχή (inclusive)
+     * @param to Τέλος (inclusive)
+     * @return Λίστα αντικειμένων
+     */
+    public List<T> between(K from, K to) {
+        if (from.compareTo(to) > 0) return List.of();
+        return query(p -> sorted(p).subMap(from, true, to, true).values());
+    }
+
+    /**
+     * Επιστρέφει τα αντικείμενα με κλειδί μεγαλύτερο ή ίσο του {@code from},
+     * ταξινομημένα κατά κλειδί και κατόπιν κατά κωδικό.
+     *
+     * @param from Αρχή (inclusive)
+     * @return Λίστα αντικειμένων
+     */
+    public List<T> atOrAfter(K from) {
+        return query(p -> sorted(p).tailMap(from, true).values());
+    }
+
+    private NavigableMap<K, IntIndex> sorted(Map<K, IntIndex> postings) {
+        return (NavigableMap<K, IntIndex>) postings;
+    }
+}
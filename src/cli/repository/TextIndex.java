@@ -0,0 +1,393 @@
+package cli.repository;
+
+import cli.entity.Identifiable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Ευρετήριο πλήρους κειμένου (inverted index) πάνω σε πεδία κειμένου ενός {@link CsvRepository}.
+ * <p>Τα κείμενα χωρίζονται σε λέξεις, οι οποίες κανονικοποιούνται (πεζά, χωρίς τόνους και
+ * διαλυτικά, {@code ς → σ}), ώστε το «ΡΩΜΑΙΟΣ» να βρίσκει το «Ρωμαίος». Κάθε λέξη της
+ * αναζήτησης ταιριάζει ακριβώς, ως πρόθεμα ή, αν δεν βρεθεί τίποτα, κατά προσέγγιση μέσω
+ * τριγράμμων (ανοχή σε ορθογραφικά λάθη). Επιστρέφονται τα αντικείμενα που ταιριάζουν σε
+ * όλες τις λέξεις, ταξινομημένα κατά βαθμολογία.</p>
+ * <p>Ενημερώνεται σε κάθε μεταβολή όπως το {@link SecondaryIndex}· δημιουργείται με
+ * {@link CsvRepository#addTextIndex(String, List)}.</p>
+ *
+ * @param <T> Τύπος αντικειμένων
+ */
+public final class TextIndex<T extends Identifiable> implements RepositoryListener<T> {
+
+    /** Ελάχιστο μήκος λέξης αναζήτησης για ταίριασμα προθέματος. */
+    private static final int MIN_PREFIX = 2;
+    /** Μέγιστο πλήθος λέξεων του ευρετηρίου στις οποίες επεκτείνεται ένα πρόθεμα ή τρίγραμμο. */
+    private static final int MAX_EXPANSIONS = 64;
+    /** Ελάχιστη ομοιότητα (Jaccard τριγράμμων) για ταίριασμα κατά προσέγγιση. */
+    private static final double MIN_SIMILARITY = 0.4;
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.6;
+    private static final double FUZZY = 0.4;
+
+    private final String name;
+    private final List<Function<T, String>> fields;
+    private final IntFunction<T> lookup;
+    private final Lock readLock;
+    private final Runnable ensureLoaded;
+
+    /** Λέξη → (κωδικός → πλήθος εμφανίσεων). */
+    private final Map<String, IntIndex> postings = new HashMap<>();
+    /** Οι ίδιες λέξεις ταξινομημένες, για ταίριασμα προθέματος. */
+    private final TreeMap<String, IntIndex> sorted = new TreeMap<>();
+    /** Τρίγραμμο → λέξεις που το περιέχουν. */
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    /** Κωδικός → οι λέξεις του αντικειμένου, για ενημέρωση σε μεταβολές. */
+    private final IntLinkedMap<String[]> tokensOf = new IntLinkedMap<>();
+
+    TextIndex(String name, List<Function<T, String>> fields, IntFunction<T> lookup, Lock readLock,
+              Runnable ensureLoaded) {
+        this.name = name;
+        this.fields = List.copyOf(fields);
+        this.lookup = lookup;
+        this.readLock = readLock;
+        this.ensureLoaded = ensureLoaded;
+    }
+
+    /** @return Όνομα του ευρετηρίου */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Αναζητά τα αντικείμενα που ταιριάζουν σε όλες τις λέξεις της αναζήτησης.
+     *
+     * @param query Κείμενο αναζήτησης (π.χ. {@code "ρωμ ιουλ"})
+     * @param limit Μέγιστο πλήθος αποτελεσμάτων
+     * @return Αντικείμενα κατά φθίνουσα βαθμολογία και, σε ισοβαθμία, αύξοντα κωδικό
+     */
+    public List<T> search(String query, int limit) {
+        String[] terms = new LinkedHashSet<>(tokenize(query)).toArray(String[]::new);
+        if (terms.length == 0 || limit <= 0) return List.of();
+        ensureLoaded.run();
+        readLock.lock();
+        try {
+            List<List<Match>> matches = new ArrayList<>(terms.length);
+            for (String term : terms) {
+                List<Match> m = expand(term);
+                if (m.isEmpty()) return List.of();
+                matches.add(m);
+            }
+            /* ξεκινάμε από τη λέξη με τα λιγότερα υποψήφια */
+            matches.sort((a, b) -> Long.compare(weight(a), weight(b)));
+
+            Scores acc = new Scores(matches.get(0));
+            for (int t = 1; t < matches.size(); t++) {
+                List<Match> term = matches.get(t);
+                acc.retain(id -> {
+                    double best = 0;
+                    for (Match m : term) {
+                        int count = m.ids.get(id);
+                        if (count > 0) best = Math.max(best, m.score(count));
+                    }
+                    return best;
+                });
+            }
+            int[] top = acc.top(limit);
+            List<T> out = new ArrayList<>(top.length);
+            for (int id : top) {
+                T t = lookup.apply(id);
+                if (t != null) out.add(t);
+            }
+            return out;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void saved(T previous, T current) {
+        int id = current.getId();
+        String[] tokens = tokensOf(current);
+        String[] old = tokensOf.put(id, tokens);
+        if (old != null) {
+            if (Arrays.equals(old, tokens)) return;
+            for (String token : old) unlink(token, id);
+        }
+        for (String token : tokens) {
+            IntIndex ids = postings.get(token);
+            if (ids == null) {
+                postings.put(token, ids = new IntIndex(4));
+                sorted.put(token, ids);
+                for (String g : trigramsOf(token)) trigrams.computeIfAbsent(g, x -> new HashSet<>()).add(token);
+            }
+            int count = ids.get(id);
+            ids.put(id, count < 0 ? 1 : count + 1);
+        }
+    }
+
+    @Override
+    public void deleted(T t) {
+        int id = t.getId();
+        String[] old = tokensOf.remove(id);
+        if (old != null) for (String token : old) unlink(token, id);
+    }
+
+    @Override
+    public void reset() {
+        postings.clear();
+        sorted.clear();
+        trigrams.clear();
+        tokensOf.clear();
+    }
+
+    /**
+     * Κανονικοποιεί κείμενο για σύγκριση: πεζά, χωρίς τόνους/διαλυτικά και με {@code ς → σ}.
+     *
+     * @param s Κείμενο
+     * @return Κανονικοποιημένο κείμενο
+     */
+    static String fold(String s) {
+        char[] out = new char[s.length()];
+        for (int i = 0; i < out.length; i++) {
+            char c = foldChar(Character.toLowerCase(s.charAt(i)));
+            if (c == 0) {
+                /* άλλα διακριτικά (π.χ. λατινικά με τόνους): γενική αποσύνθεση Unicode */
+                String plain = Normalizer.normalize(s.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+                return plain.replaceAll("\\p{M}+", "").replace('ς', 'σ');
+            }
+            out[i] = c;
+        }
+        return new String(out);
+    }
+
+    /** Πεζός χαρακτήρας χωρίς τόνο/διαλυτικά, ή 0 αν χρειάζεται γενική κανονικοποίηση. */
+    private static char foldChar(char c) {
+        if (c < 0x80) return c;
+        switch (c) {
+            case 'ά': return 'α';
+            case 'έ': return 'ε';
+            case 'ή': return 'η';
+            case 'ί': case 'ϊ': case 'ΐ': return 'ι';
+            case 'ό': return 'ο';
+            case 'ύ': case 'ϋ': case 'ΰ': return 'υ';
+            case 'ώ': return 'ω';
+            case 'ς': return 'σ';
+            default: return (c >= 'α' && c <= 'ω') || !Character.isLetter(c) ? c : 0;
+        }
+    }
+
+    /**
+     * Χωρίζει κείμενο σε κανονικοποιημένες λέξεις (γράμματα και ψηφία).
+     *
+     * @param s Κείμενο ({@code null} δίνει καμία λέξη)
+     * @return Λέξεις με τη σειρά εμφάνισης
+     */
+    static List<String> tokenize(String s) {
+        List<String> out = new ArrayList<>();
+        if (s == null) return out;
+        String f = fold(s);
+        int start = -1;
+        for (int i = 0; i <= f.length(); i++) {
+            boolean word = i < f.length() && Character.isLetterOrDigit(f.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                out.add(f.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private String[] tokensOf(T t) {
+        List<String> out = new ArrayList<>();
+        for (Function<T, String> f : fields) out.addAll(tokenize(f.apply(t)));
+        String[] tokens = out.toArray(String[]::new);
+        Arrays.sort(tokens);
+        return tokens;
+    }
+
+    private void unlink(String token, int id) {
+        IntIndex ids = postings.get(token);
+        if (ids == null) return;
+        int count = ids.get(id);
+        if (count > 1) {
+            ids.put(id, count - 1);
+            return;
+        }
+        ids.remove(id);
+        if (ids.size() > 0) return;
+        postings.remove(token);
+        sorted.remove(token);
+        for (String g : trigramsOf(token)) {
+            Set<String> tokens = trigrams.get(g);
+            if (tokens != null && tokens.remove(token) && tokens.isEmpty()) trigrams.remove(g);
+        }
+    }
+
+    /**
+     * Βρίσκει τις λέξεις του ευρετηρίου που ταιριάζουν σε μία λέξη αναζήτησης: την ίδια,
+     * όσες την έχουν ως πρόθεμα και, αν δεν βρεθεί καμία, τις πιο όμοιες κατά τρίγραμμα.
+     */
+    private List<Match> expand(String term) {
+        List<Match> out = new ArrayList<>();
+        IntIndex exact = postings.get(term);
+        if (exact != null) out.add(new Match(exact, EXACT));
+        if (term.length() >= MIN_PREFIX) {
+            for (Map.Entry<String, IntIndex> e : sorted.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+                if (out.size() > MAX_EXPANSIONS) break;
+                out.add(new Match(e.getValue(), PREFIX));
+            }
+        }
+        if (out.isEmpty() && term.length() >= 3) {
+            Set<String> grams = trigramsOf(term);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String g : grams) {
+                Set<String> tokens = trigrams.get(g);
+                if (tokens != null) for (String token : tokens) shared.merge(token, 1, Integer::sum);
+            }
+            shared.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(),
+                            e.getValue() / (double) (grams.size() + trigramsOf(e.getKey()).size() - e.getValue())))
+                    .filter(e -> e.getValue() >= MIN_SIMILARITY)
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(e -> out.add(new Match(postings.get(e.getKey()), FUZZY * e.getValue())));
+        }
+        return out;
+    }
+
+    /**
+     * Τρίγραμμα της λέξης με σημάδια αρχής/τέλους ({@code ^ρω, ρωμ, ..., ος$}). Οι αριθμοί
+     * δεν έχουν τρίγραμμα: ένας «κοντινός» αριθμός δεν είναι ορθογραφικό λάθος.
+     */
+    private static Set<String> trigramsOf(String token) {
+        if (Character.isDigit(token.charAt(0))) return Set.of();
+        String padded = '^' + token + '$';
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) out.add(padded.substring(i, i + 3));
+        return out;
+    }
+
+    private static long weight(List<Match> matches) {
+        long w = 0;
+        for (Match m : matches) w += m.ids.size();
+        return w;
+    }
+
+    /** Συσσωρευτής βαθμολογιών ανά κωδικό για μία αναζήτηση. */
+    private static final class Scores {
+        private int[] ids;
+        private double[] scores;
+        private int size;
+
+        /** Υποψήφιοι είναι οι κωδικοί της πρώτης λέξης, με τη μεγαλύτερη βαθμολογία ανά κωδικό. */
+        Scores(List<Match> first) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, weight(first));
+            ids = new int[capacity];
+            scores = new double[capacity];
+            if (first.size() == 1) {
+                /* μία λέξη του ευρετηρίου: κάθε κωδικός εμφανίζεται μία φορά */
+                Match m = first.get(0);
+                m.ids.forEach((id, count) -> { ids[size] = id; scores[size++] = m.score(count); });
+                return;
+            }
+            IntIndex slotOf = new IntIndex(capacity);
+            for (Match m : first) {
+                m.ids.forEach((id, count) -> {
+                    int slot = slotOf.get(id);
+                    if (slot >= 0) {
+                        scores[slot] = Math.max(scores[slot], m.score(count));
+                    } else {
+                        ids[size] = id;
+                        scores[size] = m.score(count);
+                        slotOf.put(id, size++);
+                    }
+                });
+            }
+        }
+
+        /** Κρατά μόνο όσους κωδικούς ταιριάζουν και στην επόμενη λέξη, προσθέτοντας τη βαθμολογία της. */
+        void retain(IntToDoubleFunction score) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                double s = score.applyAsDouble(ids[i]);
+                if (s == 0) continue;
+                ids[kept] = ids[i];
+                scores[kept++] = scores[i] + s;
+            }
+            size = kept;
+        }
+
+        /**
+         * Επιστρέφει τους {@code k} καλύτερους κωδικούς σε O(n log k), με σωρό ελαχίστου
+         * στις θέσεις {@code [0, k)}.
+         */
+        int[] top(int k) {
+            int[] heap = new int[Math.min(k, size)];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n < heap.length) {
+                    heap[n] = i;
+                    up(heap, n++);
+                } else if (better(i, heap[0])) {
+                    heap[0] = i;
+                    down(heap, 0, n);
+                }
+            }
+            int[] out = new int[n];
+            for (int j = n - 1; j >= 0; j--) {
+                out[j] = ids[heap[0]];
+                heap[0] = heap[j];
+                down(heap, 0, j);
+            }
+            return out;
+        }
+
+        /** Υψηλότερη βαθμολογία ή, σε ισοβαθμία, μικρότερος κωδικός. */
+        private boolean better(int a, int b) {
+            return scores[a] != scores[b] ? scores[a] > scores[b] : ids[a] < ids[b];
+        }
+
+        private void up(int[] heap, int i) {
+            while (i > 0) {
+                int p = (i - 1) / 2;
+                if (!better(heap[p], heap[i])) break;
+                int x = heap[p]; heap[p] = heap[i]; heap[i] = x;
+                i = p;
+            }
+        }
+
+        private void down(int[] heap, int i, int n) {
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= n) return;
+                if (c + 1 < n && better(heap[c], heap[c + 1])) c++;
+                if (!better(heap[i], heap[c])) return;
+                int x = heap[c]; heap[c] = heap[i]; heap[i] = x;
+                i = c;
+            }
+        }
+    }
+
+    /** Λέξη του ευρετηρίου που ταίριαξε, με τη βάση βαθμολογίας του τρόπου ταιριάσματος. */
+    private record Match(IntIndex ids, double base) {
+        /** Βαθμολογία: η βάση, ενισχυμένη ελαφρά για κάθε επιπλέον εμφάνιση της λέξης. */
+        double score(int occurrences) {
+            return base * (1 + 0.1 * (occurrences - 1));
+        }
+    }
+}
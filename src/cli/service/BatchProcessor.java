@@ -0,0 +1,213 @@
+package cli.service;
+
+import cli.codec.FieldReader;
+import cli.codec.FieldWriter;
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.Identifiable;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Μη διαδραστική εκτέλεση εντολών από αρχείο, μία ανά γραμμή, πάνω στα ήδη φορτωμένα
+ * αποθετήρια.
+ * <p>Κάθε γραμμή έχει τη μορφή των εγγραφών CSV: πεδία χωρισμένα με {@code |}, με τα ίδια
+ * escapes (βλ. {@link FieldReader}). Το πρώτο πεδίο είναι η εντολή:</p>
+ * <pre>
+ * add-theater|τίτλος|πρωταγωνιστής|χώρος|YYYY-MM-DD[|θέσεις]
+ * add-music|τίτλος|τραγουδιστής|χώρος|YYYY-MM-DD[|θέσεις]
+ * add-customer|όνομα
+ * edit-theater|id|τίτλος|πρωταγωνιστής|χώρος|YYYY-MM-DD|θέσεις   (κενό πεδίο: μένει ως έχει)
+ * edit-music|id|τίτλος|τραγουδιστής|χώρος|YYYY-MM-DD|θέσεις
+ * edit-customer|id|όνομα
+ * delete-theater|id   delete-music|id   delete-customer|id
+ * book-theater|πελάτης|παράσταση   book-music|πελάτης|παράσταση
+ * stats
+ * </pre>
+ * <p>Κενές γραμμές και γραμμές που αρχίζουν με {@code #} αγνοούνται. Μια εσφαλμένη γραμμή
+ * αναφέρεται με τον αριθμό της και η εκτέλεση συνεχίζει. Η έξοδος (σφάλματα, στατιστικά)
+ * γράφεται στον δοθέντα {@link Writer}, ο οποίος αναμένεται να έχει buffer.</p>
+ * <p>Ο επεξεργαστής δεν γράφει ο ίδιος στα CSV· ο καλών αναστέλλει το compaction
+ * ({@link CsvRepository#deferCompaction(boolean)}) και κάνει ένα {@code save()} στο τέλος.</p>
+ */
+public final class BatchProcessor {
+
+    /**
+     * Απολογισμός μιας εκτέλεσης.
+     *
+     * @param operations Πλήθος εντολών που εκτελέστηκαν επιτυχώς
+     * @param failed Πλήθος εντολών που απορρίφθηκαν
+     * @param nanos Διάρκεια σε ns
+     */
+    public record Summary(long operations, long failed, long nanos) {
+
+        /** @return Επιτυχείς εντολές ανά δευτερόλεπτο */
+        public double throughput() {
+            return nanos == 0 ? 0 : operations * 1e9 / nanos;
+        }
+    }
+
+    private final CsvRepository<TheaterPlay> theater;
+    private final CsvRepository<MusicShow> music;
+    private final CsvRepository<Customer> customers;
+    private final BookingService bookings;
+    private final BookingStats stats;
+
+    /**
+     * @param theater Αποθετήριο θεατρικών παραστάσεων
+     * @param music Αποθετήριο μουσικών παραστάσεων
+     * @param customers Αποθετήριο πελατών
+     * @param bookings Υπηρεσία κρατήσεων
+     * @param stats Στατιστικά κρατήσεων
+     */
+    public BatchProcessor(CsvRepository<TheaterPlay> theater, CsvRepository<MusicShow> music,
+                          CsvRepository<Customer> customers, BookingService bookings, BookingStats stats) {
+        this.theater = theater;
+        this.music = music;
+        this.customers = customers;
+        this.bookings = bookings;
+        this.stats = stats;
+    }
+
+    /**
+     * Εκτελεί όλες τις εντολές της εισόδου με τη σειρά.
+     *
+     * @param in Είσοδος εντολών
+     * @param out Έξοδος αναφορών
+     * @return Απολογισμός της εκτέλεσης
+     */
+    public Summary run(BufferedReader in, Writer out) {
+        long start = System.nanoTime();
+        long ok = 0, failed = 0, lineNo = 0;
+        try {
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNo++;
+                if (line.isBlank() || line.charAt(0) == '#') continue;
+                try {
+                    execute(line, out);
+                    ok++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    out.append("γραμμή ").append(Long.toString(lineNo)).append(": ")
+                            .append(String.valueOf(e.getMessage())).append('\n');
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Summary(ok, failed, System.nanoTime() - start);
+    }
+
+    private void execute(String line, Writer out) throws IOException {
+        FieldReader f = new FieldReader(line, 0, line.length());
+        String command = f.nextString();
+        switch (command) {
+            case "add-theater" -> theater.save(new TheaterPlay(theater.nextId(),
+                    field(f), field(f), field(f), date(f), optionalInt(optionalField(f), 0)));
+            case "add-music" -> music.save(new MusicShow(music.nextId(),
+                    field(f), field(f), field(f), date(f), optionalInt(optionalField(f), 0)));
+            case "add-customer" -> customers.save(new Customer(customers.nextId(), field(f)));
+            case "edit-theater" -> {
+                /* όλα τα πεδία αναλύονται πριν αλλάξει οτιδήποτε στο αντικείμενο */
+                TheaterPlay tp = existing(theater, id(f));
+                String title = optionalField(f), lead = optionalField(f), venue = optionalField(f);
+                LocalDate date = optionalDate(optionalField(f), tp.getDate());
+                int capacity = optionalInt(optionalField(f), tp.getCapacity());
+                tp.setTitle(optional(title, tp.getTitle()));
+                tp.setProtagonist(optional(lead, tp.getProtagonist()));
+                tp.setVenue(optional(venue, tp.getVenue()));
+                tp.setDate(date);
+                tp.setCapacity(capacity);
+                theater.save(tp);
+            }
+            case "edit-music" -> {
+                MusicShow ms = existing(music, id(f));
+                String title = optionalField(f), singer = optionalField(f), venue = optionalField(f);
+                LocalDate date = optionalDate(optionalField(f), ms.getDate());
+                int capacity = optionalInt(optionalField(f), ms.getCapacity());
+                ms.setTitle(optional(title, ms.getTitle()));
+                ms.setSinger(optional(singer, ms.getSinger()));
+                ms.setVenue(optional(venue, ms.getVenue()));
+                ms.setDate(date);
+                ms.setCapacity(capacity);
+                music.save(ms);
+            }
+            case "edit-customer" -> {
+                Customer c = existing(customers, id(f));
+                c.setName(optional(optionalField(f), c.getName()));
+                customers.save(c);
+            }
+            case "delete-theater" -> theater.delete(id(f));
+            case "delete-music" -> music.delete(id(f));
+            case "delete-customer" -> customers.delete(id(f));
+            case "book-theater" -> bookings.book(id(f), Booking.EventType.THEATER, id(f));
+            case "book-music" -> bookings.book(id(f), Booking.EventType.MUSIC, id(f));
+            case "stats" -> writeStats(out);
+            default -> throw new IllegalArgumentException("Άγνωστη εντολή: " + command);
+        }
+    }
+
+    /** Γράφει μία γραμμή {@code τύπος|id|τίτλος|κρατήσεις} ανά εκδήλωση. */
+    private void writeStats(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        for (TheaterPlay tp : theater.findAll()) {
+            statsLine(sb, Booking.EventType.THEATER, tp.getId(), tp.getTitle());
+            out.append(sb);
+        }
+        for (MusicShow ms : music.findAll()) {
+            statsLine(sb, Booking.EventType.MUSIC, ms.getId(), ms.getTitle());
+            out.append(sb);
+        }
+    }
+
+    private void statsLine(StringBuilder sb, Booking.EventType type, int id, String title) {
+        sb.setLength(0);
+        FieldWriter.appendEnum(sb, type).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendInt(sb, id).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendString(sb, title).append(FieldWriter.SEPARATOR);
+        FieldWriter.appendInt(sb, stats.count(type, id)).append('\n');
+    }
+
+    private static String field(FieldReader f) {
+        if (!f.hasNext()) throw new IllegalArgumentException("Λείπουν πεδία");
+        return f.nextString();
+    }
+
+    private static String optionalField(FieldReader f) {
+        return f.hasNext() ? f.nextString() : "";
+    }
+
+    private static int id(FieldReader f) {
+        if (!f.hasNext()) throw new IllegalArgumentException("Λείπουν πεδία");
+        return f.nextInt();
+    }
+
+    private static LocalDate date(FieldReader f) {
+        return LocalDate.parse(field(f));
+    }
+
+    /** @return Αντίγραφο της εγγραφής, ώστε οι αλλαγές να μη φαίνονται πριν από το {@code save} */
+    private static <T extends Identifiable> T existing(CsvRepository<T> repo, int id) {
+        return repo.findById(id).map(repo::copyOf).orElseThrow(() -> new IllegalArgumentException("Δεν βρέθηκε: " + id));
+    }
+
+    private static String optional(String v, String def) {
+        return v.isBlank() ? def : v;
+    }
+
+    private static int optionalInt(String v, int def) {
+        return v.isBlank() ? def : Integer.parseInt(v.trim());
+    }
+
+    private static LocalDate optionalDate(String v, LocalDate def) {
+        return v.isBlank() ? def : LocalDate.parse(v);
+    }
+}
@@ -0,0 +1,304 @@
+package cli.service;
+
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Σωλήνωση κρατήσεων για αιχμές ζήτησης (π.χ. έναρξη προπώλησης).
+ * <p>Οι αιτήσεις μπαίνουν σε φραγμένο δακτυλιοειδή buffer πολλών παραγωγών / ενός
+ * καταναλωτή, χωρίς κλείδωμα: κάθε θέση έχει αριθμό ακολουθίας που δείχνει αν είναι
+ * ελεύθερη ή γεμάτη. Ένα μόνο νήμα-εγγραφέας αδειάζει τον buffer σε ομάδες έως
+ * {@value #MAX_BATCH} αιτήσεων και για κάθε ομάδα:</p>
+ * <ol>
+ *   <li>δεσμεύει θέσεις χωρίς κλείδωμα στους {@link SeatCounters} και παίρνει τους κωδικούς
+ *       των κρατήσεων με ένα {@link CsvRepository#nextIds}·</li>
+ *   <li>υπό τα κλειδώματα των αποθετηρίων ελέγχει πελάτες και παραστάσεις και αποθηκεύει
+ *       όλες τις έγκυρες κρατήσεις με ένα {@link CsvRepository#saveAll}, δηλαδή με μία
+ *       εγγραφή (και το πολύ ένα fsync) στο journal·</li>
+ *   <li>ολοκληρώνει το {@link CompletableFuture} κάθε αίτησης με την κράτηση ή με το σφάλμα.</li>
+ * </ol>
+ * <p>Όταν ο buffer γεμίσει, ο {@link #submit} περιμένει (backpressure) και ο
+ * {@link #trySubmit} αποτυγχάνει αμέσως. Η καθυστέρηση κάθε αίτησης, από την υποβολή
+ * ως την ολοκλήρωση, καταγράφεται στο {@link #latency()}.</p>
+ * <p>Τα futures ολοκληρώνονται από το νήμα-εγγραφέα· οι εξαρτημένες ενέργειες πρέπει να
+ * είναι σύντομες ή να εκτελούνται ασύγχρονα.</p>
+ */
+public final class BookingPipeline implements AutoCloseable {
+
+    /** Προεπιλεγμένη χωρητικότητα του buffer (δύναμη του 2). */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /** Μέγιστο πλήθος αιτήσεων ανά ομάδα. */
+    public static final int MAX_BATCH = 1024;
+
+    /** Μία αίτηση κράτησης μέσα στον buffer. */
+    private record Request(int customerId, Booking.EventType type, int eventId,
+                           CompletableFuture<Booking> result, long submitted) { }
+
+    private final CsvRepository<Customer> customers;
+    private final CsvRepository<TheaterPlay> theater;
+    private final CsvRepository<MusicShow> music;
+    private final CsvRepository<Booking> bookings;
+    private final BookingService service;
+    private final SeatCounters seats;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final Request[] slots;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Μόνο το νήμα-εγγραφέας τη διαβάζει και τη γράφει. */
+    private long head;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    /** Παραγωγοί μέσα σε {@link #submit}/{@link #trySubmit}· το {@link #close} τους περιμένει. */
+    private final AtomicInteger producers = new AtomicInteger();
+    private volatile boolean parked;
+
+    /**
+     * Δημιουργεί τη σωλήνωση και ξεκινά το νήμα-εγγραφέα.
+     *
+     * @param customers Αποθετήριο πελατών
+     * @param theater Αποθετήριο θεατρικών παραστάσεων
+     * @param music Αποθετήριο μουσικών παραστάσεων
+     * @param bookings Αποθετήριο κρατήσεων
+     * @param service Υπηρεσία κρατήσεων (για χωρητικότητα και ύπαρξη παραστάσεων)
+     * @param seats Μετρητές θέσεων, εγγεγραμμένοι ως παρατηρητής του {@code bookings}
+     * @param capacity Χωρητικότητα του buffer (στρογγυλεύεται σε δύναμη του 2)
+     */
+    public BookingPipeline(CsvRepository<Customer> customers, CsvRepository<TheaterPlay> theater,
+                           CsvRepository<MusicShow> music, CsvRepository<Booking> bookings,
+                           BookingService service, SeatCounters seats, int capacity) {
+        this.customers = customers;
+        this.theater = theater;
+        this.music = music;
+        this.bookings = bookings;
+        this.service = service;
+        this.seats = seats;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Request[size];
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+        this.mask = size - 1;
+        this.writer = new Thread(this::drain, "booking-pipeline");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Υποβάλλει αίτηση κράτησης· αν ο buffer είναι γεμάτος, περιμένει μέχρι να ελευθερωθεί θέση.
+     *
+     * @param customerId Κωδικός πελάτη
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     * @return Future με τη νέα κράτηση ή με {@link IllegalArgumentException} αν απορρίφθηκε
+     * @throws RejectedExecutionException αν η σωλήνωση έχει κλείσει
+     */
+    public CompletableFuture<Booking> submit(int customerId, Booking.EventType type, int eventId) {
+        Request r = enter(customerId, type, eventId);
+        try {
+            for (int spins = 0; !offer(r); spins++) {
+                if (!running) throw new RejectedExecutionException("Η σωλήνωση κρατήσεων έχει κλείσει");
+                if (spins < 64) Thread.onSpinWait();
+                else LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+            return r.result;
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Υποβάλλει αίτηση κράτησης χωρίς αναμονή.
+     *
+     * @param customerId Κωδικός πελάτη
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     * @return Future με τη νέα κράτηση ή {@code null} αν ο buffer είναι γεμάτος
+     * @throws RejectedExecutionException αν η σωλήνωση έχει κλείσει
+     */
+    public CompletableFuture<Booking> trySubmit(int customerId, Booking.EventType type, int eventId) {
+        Request r = enter(customerId, type, eventId);
+        try {
+            return offer(r) ? r.result : null;
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    /** @return Οι καθυστερήσεις των αιτήσεων που ολοκληρώθηκαν, από την υποβολή ως την απάντηση */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * Σταματά να δέχεται νέες αιτήσεις, εξυπηρετεί όσες εκκρεμούν και τερματίζει το νήμα-εγγραφέα.
+     * Όσες αιτήσεις μπουν αφού τερματίσει ο εγγραφέας ολοκληρώνονται με
+     * {@link RejectedExecutionException}· για τον σκοπό αυτό περιμένει πρώτα να βγουν όλοι οι
+     * παραγωγοί που πέρασαν τον έλεγχο πριν από το κλείσιμο.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        /* αιτήσεις που πρόλαβαν να μπουν ενώ έκλεινε ο εγγραφέας */
+        while (producers.get() != 0) Thread.onSpinWait();
+        for (Request r; (r = poll()) != null; ) {
+            r.result.completeExceptionally(new RejectedExecutionException("Η σωλήνωση κρατήσεων έχει κλείσει"));
+        }
+    }
+
+    /**
+     * Δηλώνει τον παραγωγό πριν ελέγξει αν η σωλήνωση είναι ανοιχτή· έτσι είτε βλέπει το
+     * κλείσιμο είτε το {@link #close} τον βλέπει και τον περιμένει. Ο καλών μειώνει το
+     * {@code producers} όταν τελειώσει.
+     */
+    private Request enter(int customerId, Booking.EventType type, int eventId) {
+        producers.incrementAndGet();
+        if (!running) {
+            producers.decrementAndGet();
+            throw new RejectedExecutionException("Η σωλήνωση κρατήσεων έχει κλείσει");
+        }
+        return new Request(customerId, type, eventId, new CompletableFuture<>(), System.nanoTime());
+    }
+
+    /** Εισαγωγή πολλών παραγωγών: δέσμευση θέσης με CAS στο {@code tail}, δημοσίευση μέσω ακολουθίας. */
+    private boolean offer(Request r) {
+        long pos = tail.get();
+        while (true) {
+            int i = (int) pos & mask;
+            long dif = sequence.getAcquire(i) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[i] = r;
+                    /* volatile εγγραφή πριν από την ανάγνωση του parked (βλ. drain) */
+                    sequence.set(i, pos + 1);
+                    if (parked) LockSupport.unpark(writer);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /** Εξαγωγή από τον μοναδικό καταναλωτή· {@code null} αν ο buffer είναι άδειος. */
+    private Request poll() {
+        int i = (int) head & mask;
+        if (sequence.getAcquire(i) != head + 1) return null;
+        Request r = slots[i];
+        slots[i] = null;
+        sequence.setRelease(i, head + mask + 1);
+        head++;
+        return r;
+    }
+
+    private void drain() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            for (Request r; batch.size() < MAX_BATCH && (r = poll()) != null; ) batch.add(r);
+            if (!batch.isEmpty()) {
+                process(batch);
+                batch.clear();
+                continue;
+            }
+            if (!running && tail.get() == head) return;
+            parked = true;
+            /* ξανακοιτάμε μετά τη δήλωση, ώστε να μη χαθεί unpark παραγωγού */
+            if (sequence.get((int) head & mask) != head + 1 && running) LockSupport.parkNanos(1_000_000);
+            parked = false;
+        }
+    }
+
+    /** Εξυπηρετεί μία ομάδα αιτήσεων και ολοκληρώνει τα futures τους. */
+    private void process(List<Request> batch) {
+        int n = batch.size();
+        Booking[] made = new Booking[n];
+        RuntimeException[] errors = new RuntimeException[n];
+        /* 1. δέσμευση θέσεων, χωρίς κλείδωμα αποθετηρίων */
+        int reserved = 0;
+        for (int i = 0; i < n; i++) {
+            Request r = batch.get(i);
+            try {
+                service.ensureLoaded(r.type);
+                if (!seats.tryReserve(new Booking.EventKey(r.type, r.eventId), service.capacity(r.type, r.eventId))) {
+                    throw new IllegalArgumentException("Η παράσταση είναι πλήρης");
+                }
+                reserved++;
+            } catch (RuntimeException e) {
+                errors[i] = e;
+            }
+        }
+        /* ένα μπλοκ κωδικών για όλη την ομάδα: μία εγγραφή ακολουθίας αντί για μία ανά αίτηση */
+        if (reserved > 0) {
+            try {
+                int id = bookings.nextIds(reserved);
+                for (int i = 0; i < n; i++) {
+                    if (errors[i] != null) continue;
+                    Request r = batch.get(i);
+                    made[i] = new Booking(id++, r.customerId, r.type, r.eventId);
+                    seats.bind(made[i].getId());
+                }
+            } catch (RuntimeException e) {
+                for (int i = 0; i < n; i++) {
+                    if (errors[i] != null) continue;
+                    Request r = batch.get(i);
+                    seats.release(new Booking.EventKey(r.type, r.eventId), -1);
+                    errors[i] = e;
+                }
+            }
+        }
+        /* 2. έλεγχος αναφορών και αποθήκευση όλων με μία εγγραφή στο journal */
+        try {
+            CsvRepository.atomically(() -> {
+                List<Booking> valid = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    if (made[i] == null) continue;
+                    Request r = batch.get(i);
+                    if (customers.findById(r.customerId).isEmpty()) errors[i] = new IllegalArgumentException("Δεν υπάρχει πελάτης");
+                    else if (!service.eventExists(r.type, r.eventId)) errors[i] = new IllegalArgumentException("Δεν υπάρχει παράσταση");
+                    else valid.add(made[i]);
+                }
+                bookings.saveAll(valid);
+                return null;
+            }, customers, theater, music, bookings);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < n; i++) if (made[i] != null && errors[i] == null) errors[i] = e;
+        }
+        /* 3. απάντηση */
+        long now = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            Request r = batch.get(i);
+            if (errors[i] == null) {
+                r.result.complete(made[i]);
+            } else {
+                if (made[i] != null) seats.release(made[i].getEventKey(), made[i].getId());
+                r.result.completeExceptionally(errors[i]);
+            }
+            latency.record(now - r.submitted);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cli.service;
+
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+
+/**
+ * Υπηρεσία κρατήσεων πάνω στα αποθετήρια πελατών, παραστάσεων και κρατήσεων.
+ * <p>Ο έλεγχος ύπαρξης πελάτη και παράστασης και η εισαγωγή της κράτησης εκτελούνται ως μία
+ * ατομική λειτουργία, ώστε μια ταυτόχρονη διαγραφή να μην αφήνει κράτηση χωρίς πελάτη
+ * ή παράσταση, ακόμη και όταν εξυπηρετούνται πολλοί χειριστές ταυτόχρονα.</p>
+ * <p>Πριν από αυτήν, η θέση δεσμεύεται χωρίς κλείδωμα στους {@link SeatCounters}· μια
+ * παράσταση που έχει γεμίσει απορρίπτει την κράτηση χωρίς να περιμένει τα κλειδώματα
+ * των αποθετηρίων.</p>
+ */
+public final class BookingService {
+
+    private final CsvRepository<Customer> customers;
+    private final CsvRepository<TheaterPlay> theater;
+    private final CsvRepository<MusicShow> music;
+    private final CsvRepository<Booking> bookings;
+    private final SeatCounters seats;
+
+    /**
+     * @param customers Αποθετήριο πελατών
+     * @param theater Αποθετήριο θεατρικών παραστάσεων
+     * @param music Αποθετήριο μουσικών παραστάσεων
+     * @param bookings Αποθετήριο κρατήσεων
+     * @param seats Μετρητές θέσεων, εγγεγραμμένοι ως παρατηρητής του {@code bookings}
+     */
+    public BookingService(CsvRepository<Customer> customers, CsvRepository<TheaterPlay> theater,
+                          CsvRepository<MusicShow> music, CsvRepository<Booking> bookings, SeatCounters seats) {
+        this.customers = customers;
+        this.theater = theater;
+        this.music = music;
+        this.bookings = bookings;
+        this.seats = seats;
+    }
+
+    /**
+     * Ελέγχει αν υπάρχει η εκδήλωση του δοθέντος τύπου.
+     *
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     * @return {@code true} αν υπάρχει
+     */
+    public boolean eventExists(Booking.EventType type, int eventId) {
+        return (type == Booking.EventType.THEATER ? theater.findById(eventId) : music.findById(eventId)).isPresent();
+    }
+
+    /**
+     * Επιστρέφει τη χωρητικότητα μιας εκδήλωσης.
+     *
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     * @return Πλήθος θέσεων ({@code 0} για χωρίς όριο)
+     * @throws IllegalArgumentException αν δεν υπάρχει η εκδήλωση
+     */
+    public int capacity(Booking.EventType type, int eventId) {
+        return (type == Booking.EventType.THEATER
+                ? theater.findById(eventId).map(TheaterPlay::getCapacity)
+                : music.findById(eventId).map(MusicShow::getCapacity))
+                .orElseThrow(() -> new IllegalArgumentException("Δεν υπάρχει παράσταση"));
+    }
+
+    /**
+     * Ολοκληρώνει τυχόν αναβληθείσα φόρτωση ({@code --lazy}) των κρατήσεων και των εκδηλώσεων
+     * του τύπου. Πρέπει να προηγείται κάθε δέσμευσης θέσης: η φόρτωση των κρατήσεων
+     * αναδομεί τους {@link SeatCounters} και θα έσβηνε μια δέσμευση που έγινε πριν από αυτήν.
+     *
+     * @param type Τύπος εκδήλωσης
+     */
+    void ensureLoaded(Booking.EventType type) {
+        bookings.ensureLoaded();
+        (type == Booking.EventType.THEATER ? theater : music).ensureLoaded();
+    }
+
+    /**
+     * Δημιουργεί ατομικά νέα κράτηση, αφού ελέγξει ότι υπάρχουν ο πελάτης και η εκδήλωση
+     * και δεσμεύσει θέση.
+     *
+     * @param customerId Κωδικός πελάτη
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     * @return Η νέα κράτηση
+     * @throws IllegalArgumentException αν δεν υπάρχει ο πελάτης ή η εκδήλωση ή αν δεν υπάρχουν θέσεις
+     */
+    public Booking book(int customerId, Booking.EventType type, int eventId) {
+        ensureLoaded(type);
+        Booking.EventKey key = new Booking.EventKey(type, eventId);
+        if (!seats.tryReserve(key, capacity(type, eventId))) throw new IllegalArgumentException("Η παράσταση είναι πλήρης");
+        int id = -1;
+        try {
+            Booking b = new Booking(id = bookings.nextId(), customerId, type, eventId);
+            seats.bind(id);
+            CsvRepository<?> events = type == Booking.EventType.THEATER ? theater : music;
+            return CsvRepository.atomically(() -> {
+                if (customers.findById(customerId).isEmpty()) throw new IllegalArgumentException("Δεν υπάρχει πελάτης");
+                if (!eventExists(type, eventId)) throw new IllegalArgumentException("Δεν υπάρχει παράσταση");
+                bookings.save(b);
+                return b;
+            }, customers, events, bookings);
+        } catch (RuntimeException e) {
+            seats.release(key, id);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package cli.service;
+
+import cli.entity.Booking;
+import cli.repository.IntIndex;
+
+import java.util.Arrays;
+
+/**
+ * Ζωντανά στατιστικά κρατήσεων: πλήθος εισιτηρίων ανά εκδήλωση, χωριστά για κάθε
+ * {@link Booking.EventType}.
+ * <p>Οι μετρητές είναι πρωτογενείς ακέραιοι και ενημερώνονται σε O(1) σε κάθε εισαγωγή,
+ * αλλαγή ή διαγραφή κράτησης· αναδομούνται μία φορά μετά τη φόρτωση. Έτσι η οθόνη
+ * στατιστικών κοστίζει O(πλήθος εκδηλώσεων) αντί για O(πλήθος κρατήσεων).</p>
+ * <p>Δεν είναι χωριστός παρατηρητής του αποθετηρίου: τους ενημερώνουν οι {@link SeatCounters}
+ * στις ίδιες κλήσεις που μετρούν τις θέσεις, οπότε οι δύο δεν αποκλίνουν και κάθε μεταβολή
+ * εξετάζεται μία φορά. Σε αντίθεση με τις θέσεις, εδώ μετρώνται μόνο αποθηκευμένες
+ * κρατήσεις, όχι δεσμεύσεις σε εξέλιξη. Βλ. {@link SeatCounters#stats()}.</p>
+ * <p>Οι μέθοδοι είναι synchronized, ώστε τα στατιστικά να διαβάζονται με ασφάλεια από
+ * άλλα νήματα ενώ ενημερώνονται υπό το κλείδωμα του αποθετηρίου.</p>
+ */
+public final class BookingStats {
+
+    private final IntIndex[] counts = new IntIndex[Booking.EventType.values().length];
+    private final int[] totals = new int[counts.length];
+
+    /** Δημιουργεί κενά στατιστικά. */
+    BookingStats() {
+        for (int i = 0; i < counts.length; i++) counts[i] = new IntIndex();
+    }
+
+    /**
+     * Επιστρέφει το πλήθος κρατήσεων μιας εκδήλωσης.
+     *
+     * @param type Τύπος εκδήλωσης
+     * @param eventId Κωδικός εκδήλωσης
+     * @return Πλήθος κρατήσεων
+     */
+    public synchronized int count(Booking.EventType type, int eventId) {
+        return Math.max(0, counts[type.ordinal()].get(eventId));
+    }
+
+    /**
+     * Επιστρέφει το συνολικό πλήθος κρατήσεων ενός τύπου εκδήλωσης.
+     *
+     * @param type Τύπος εκδήλωσης
+     * @return Πλήθος κρατήσεων
+     */
+    public synchronized int total(Booking.EventType type) {
+        return totals[type.ordinal()];
+    }
+
+    /** Προσθέτει {@code delta} κρατήσεις στην εκδήλωση της κράτησης. */
+    synchronized void add(Booking b, int delta) {
+        int t = b.getEventType().ordinal();
+        IntIndex c = counts[t];
+        int n = Math.max(0, c.get(b.getEventId())) + delta;
+        if (n > 0) c.put(b.getEventId(), n);
+        else c.remove(b.getEventId());
+        totals[t] += delta;
+    }
+
+    /** Μηδενίζει τους μετρητές πριν από αναδόμηση. */
+    synchronized void clear() {
+        for (IntIndex c : counts) c.clear();
+        Arrays.fill(totals, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package cli.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ιστόγραμμα καθυστερήσεων σε ns, με σταθερή μνήμη και καταγραφή χωρίς κλείδωμα.
+ * <p>Οι τιμές ομαδοποιούνται λογαριθμικά: κάθε δύναμη του 2 χωρίζεται σε {@value #SUB}
+ * ισομεγέθη τμήματα, άρα τα εκατοστημόρια έχουν σχετικό σφάλμα το πολύ {@code 1/SUB}.
+ * Κατάλληλο για μετρήσεις από πολλά νήματα ταυτόχρονα.</p>
+ */
+public final class LatencyHistogram {
+
+    /** Τμήματα ανά δύναμη του 2. */
+    private static final int SUB = 16;
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB);
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Καταγράφει μία μέτρηση.
+     *
+     * @param nanos Καθυστέρηση σε ns (αρνητικές τιμές μετρούν ως 0)
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(v));
+        total.incrementAndGet();
+        for (long m = max.get(); v > m && !max.compareAndSet(m, v); m = max.get()) { }
+    }
+
+    /** @return Πλήθος μετρήσεων */
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * Επιστρέφει το εκατοστημόριο {@code p}, ως το άνω όριο του τμήματος όπου πέφτει.
+     *
+     * @param p Εκατοστημόριο στο {@code [0, 100]}
+     * @return Καθυστέρηση σε ns ({@code 0} αν δεν υπάρχουν μετρήσεις)
+     */
+    public long percentile(double p) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(n * Math.min(100, Math.max(0, p)) / 100));
+        long seen = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            seen += counts.get(b);
+            if (seen >= rank) return Math.min(upper(b), max.get());
+        }
+        return max.get();
+    }
+
+    /** @return Σύνοψη {@code p50/p90/p99/p99.9/max} σε μs */
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fµs p90=%.1fµs p99=%.1fµs p99.9=%.1fµs max=%.1fµs", count(),
+                percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3, percentile(99.9) / 1e3, max.get() / 1e3);
+    }
+
+    private static int bucket(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    private static long upper(int bucket) {
+        if (bucket < SUB) return bucket;
+        int shift = bucket / SUB - 1;
+        return ((long) (bucket % SUB + SUB + 1) << shift) - 1;
+    }
+}
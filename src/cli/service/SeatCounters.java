@@ -0,0 +1,137 @@
+package cli.service;
+
+import cli.entity.Booking;
+import cli.repository.RepositoryListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Μετρητές κατειλημμένων θέσεων ανά εκδήλωση, για κρατήσεις χωρίς υπέρβαση χωρητικότητας.
+ * <p>Κάθε εκδήλωση έχει έναν {@link AtomicInteger} με τις κρατήσεις της, μαζί με όσες
+ * βρίσκονται σε εξέλιξη. Η δέσμευση θέσης ({@link #tryReserve}) είναι ένας βρόχος
+ * compare-and-set χωρίς κλείδωμα· όταν η εκδήλωση γεμίσει, οι επόμενες απόπειρες
+ * απορρίπτονται με μία μόνο ανάγνωση, χωρίς εγγραφή στην κοινή μνήμη. Έτσι χιλιάδες
+ * ταυτόχρονοι πελάτες στην ίδια παράσταση δεν περνούν από κοινό κλείδωμα για να
+ * μάθουν αν υπάρχει θέση.</p>
+ * <p>Ως παρατηρητής του αποθετηρίου κρατήσεων, οι μετρητές αναδομούνται από το
+ * {@code bookings.csv} σε κάθε φόρτωση και ακολουθούν και τις μεταβολές που δεν
+ * περνούν από {@link #tryReserve} (π.χ. διαγραφές, αλλαγή εκδήλωσης). Μια κράτηση που
+ * δέσμευσε ήδη θέση δηλώνεται με {@link #bind(int)}, ώστε η αποθήκευσή της να μη
+ * μετρηθεί δεύτερη φορά. Στις ίδιες κλήσεις ενημερώνονται και τα {@link BookingStats}
+ * ({@link #stats()}), που μετρούν μόνο τις αποθηκευμένες κρατήσεις.</p>
+ * <p>Εγγράφεται στο αποθετήριο κρατήσεων με {@code bookingRepo.addListener(seats)}.</p>
+ */
+public final class SeatCounters implements RepositoryListener<Booking> {
+
+    private final ConcurrentHashMap<Booking.EventKey, AtomicInteger> taken = new ConcurrentHashMap<>();
+    /** Κωδικοί κρατήσεων των οποίων η θέση έχει ήδη μετρηθεί από {@link #tryReserve}. */
+    private final Set<Integer> bound = ConcurrentHashMap.newKeySet();
+    private final BookingStats stats = new BookingStats();
+
+    /** @return Τα στατιστικά κρατήσεων που ενημερώνονται μαζί με τους μετρητές */
+    public BookingStats stats() {
+        return stats;
+    }
+
+    /**
+     * Δεσμεύει ατομικά μία θέση, αν υπάρχει διαθέσιμη.
+     *
+     * @param key Η εκδήλωση
+     * @param capacity Χωρητικότητα της εκδήλωσης ({@code 0} για χωρίς όριο)
+     * @return {@code true} αν δεσμεύτηκε θέση
+     */
+    public boolean tryReserve(Booking.EventKey key, int capacity) {
+        AtomicInteger c = counter(key);
+        if (capacity <= 0) {
+            c.incrementAndGet();
+            return true;
+        }
+        for (int n = c.get(); n < capacity; n = c.get()) {
+            if (c.compareAndSet(n, n + 1)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Δηλώνει ότι η κράτηση με τον δοθέντα κωδικό αντιστοιχεί σε θέση που δεσμεύτηκε με
+     * {@link #tryReserve}· πρέπει να κληθεί πριν από την αποθήκευση της κράτησης.
+     *
+     * @param bookingId Κωδικός της κράτησης
+     */
+    public void bind(int bookingId) {
+        bound.add(bookingId);
+    }
+
+    /**
+     * Δεσμεύει θέση για συγκεκριμένη κράτηση και τη δηλώνει με {@link #bind(int)}· αν η
+     * κράτηση έχει ήδη θέση, δεν δεσμεύεται δεύτερη (π.χ. όταν ο έλεγχος μιας γραμμής
+     * μαζικής εισαγωγής επαναλαμβάνεται υπό κλείδωμα).
+     *
+     * @param bookingId Κωδικός της κράτησης
+     * @param key Η εκδήλωση
+     * @param capacity Χωρητικότητα της εκδήλωσης ({@code 0} για χωρίς όριο)
+     * @return {@code true} αν η κράτηση έχει θέση
+     */
+    public boolean reserve(int bookingId, Booking.EventKey key, int capacity) {
+        if (bound.contains(bookingId)) return true;
+        if (!tryReserve(key, capacity)) return false;
+        bind(bookingId);
+        return true;
+    }
+
+    /**
+     * Αποδεσμεύει θέση που δεσμεύτηκε με {@link #tryReserve}, εφόσον η κράτηση δεν
+     * πρόλαβε να αποθηκευτεί (π.χ. η αποθήκευση απέτυχε μετά την εισαγωγή στη μνήμη).
+     *
+     * @param key Η εκδήλωση
+     * @param bookingId Κωδικός της κράτησης ή αρνητικός αν δεν είχε δοθεί ακόμη
+     */
+    public void release(Booking.EventKey key, int bookingId) {
+        if (bookingId < 0 || bound.remove(bookingId)) counter(key).decrementAndGet();
+    }
+
+    /**
+     * Επιστρέφει το πλήθος κατειλημμένων θέσεων μιας εκδήλωσης.
+     *
+     * @param key Η εκδήλωση
+     * @return Θέσεις που έχουν κρατηθεί ή δεσμευτεί
+     */
+    public int taken(Booking.EventKey key) {
+        AtomicInteger c = taken.get(key);
+        return c == null ? 0 : c.get();
+    }
+
+    @Override
+    public void saved(Booking previous, Booking current) {
+        if (previous == null) {
+            if (!bound.remove(current.getId())) counter(current.getEventKey()).incrementAndGet();
+            stats.add(current, 1);
+            return;
+        }
+        if (previous.getEventType() == current.getEventType() && previous.getEventId() == current.getEventId()) return;
+        counter(previous.getEventKey()).decrementAndGet();
+        counter(current.getEventKey()).incrementAndGet();
+        stats.add(previous, -1);
+        stats.add(current, 1);
+    }
+
+    @Override
+    public void deleted(Booking b) {
+        counter(b.getEventKey()).decrementAndGet();
+        stats.add(b, -1);
+    }
+
+    @Override
+    public void reset() {
+        taken.clear();
+        bound.clear();
+        stats.clear();
+    }
+
+    private AtomicInteger counter(Booking.EventKey key) {
+        AtomicInteger c = taken.get(key);
+        return c != null ? c : taken.computeIfAbsent(key, k -> new AtomicInteger());
+    }
+}
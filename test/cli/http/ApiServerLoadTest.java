@@ -0,0 +1,114 @@
+package cli.http;
+
+import cli.codec.BookingCodec;
+import cli.codec.CustomerCodec;
+import cli.codec.EntityDescriptor;
+import cli.codec.MusicShowCodec;
+import cli.codec.TheaterPlayCodec;
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.Identifiable;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+import cli.repository.FsyncPolicy;
+import cli.service.BookingPipeline;
+import cli.service.BookingService;
+import cli.service.LatencyHistogram;
+import cli.service.SeatCounters;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Τοπική δοκιμή φορτίου του {@link ApiServer}: πολλοί πελάτες κάνουν ταυτόχρονα κρατήσεις
+ * ({@code POST /bookings}) σε παράσταση περιορισμένης χωρητικότητας. Ελέγχει ότι δεν γίνεται
+ * υπέρβαση της χωρητικότητας και τυπώνει ρυθμό και εκατοστημόρια καθυστέρησης.
+ * <p>Εκτέλεση: {@code java -cp out:out-test cli.http.ApiServerLoadTest [πελάτες] [αιτήσεις ανά πελάτη] [θέσεις]}.</p>
+ */
+public final class ApiServerLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int perClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int seats = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+        System.getProperties().putIfAbsent("sun.net.httpserver.maxIdleConnections", String.valueOf(ApiServer.BACKLOG));
+
+        Path dir = Files.createTempDirectory("api-load");
+        CsvRepository<TheaterPlay> theater = repo(dir, "theater.csv", TheaterPlayCodec.DESCRIPTOR);
+        CsvRepository<MusicShow> music = repo(dir, "music.csv", MusicShowCodec.DESCRIPTOR);
+        CsvRepository<Customer> customers = repo(dir, "customers.csv", CustomerCodec.DESCRIPTOR);
+        CsvRepository<Booking> bookings = repo(dir, "bookings.csv", BookingCodec.DESCRIPTOR);
+        SeatCounters counters = new SeatCounters();
+        bookings.addListener(counters);
+        for (CsvRepository<?> r : List.of(theater, music, customers, bookings)) r.load();
+        theater.save(new TheaterPlay(1, "Ο Βυσσινόκηπος", "Κ. Καζάκου", "Θέατρο Τέχνης", LocalDate.of(2030, 3, 14), seats));
+        for (int i = 1; i <= clients; i++) customers.save(new Customer(i, "Πελάτης " + i));
+
+        BookingService service = new BookingService(customers, theater, music, bookings, counters);
+        BookingPipeline pipeline = new BookingPipeline(customers, theater, music, bookings, service, counters,
+                BookingPipeline.DEFAULT_CAPACITY);
+        ApiServer server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), theater, music, customers, bookings,
+                counters.stats(), pipeline);
+        server.start();
+
+        HttpClient http = HttpClient.newHttpClient();
+        URI uri = URI.create("http://127.0.0.1:" + server.port() + "/bookings");
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger created = new AtomicInteger(), full = new AtomicInteger(), other = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> done = new ArrayList<>();
+        for (int c = 1; c <= clients; c++) {
+            String body = "{\"customerId\":" + c + ",\"eventType\":\"THEATER\",\"eventId\":1}";
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < perClient; i++) {
+                    long t0 = System.nanoTime();
+                    HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri)
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+                    latency.record(System.nanoTime() - t0);
+                    if (response.statusCode() == 201) created.incrementAndGet();
+                    else if (response.statusCode() == 409) full.incrementAndGet();
+                    else other.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        server.close();
+        pipeline.close();
+
+        int requests = clients * perClient;
+        System.out.printf("%d πελάτες × %d αιτήσεις: %d κρατήσεις, %d πλήρης, %d άλλα · %.2f s (%,.0f αιτήσεις/s)%n  %s%n",
+                clients, perClient, created.get(), full.get(), other.get(), seconds, requests / seconds, latency);
+        check(other.get() == 0, "απαντήσεις εκτός 201/409: " + other.get());
+        check(created.get() == Math.min(seats, requests), "κρατήσεις: " + created.get());
+        check(bookings.count() == created.get(), "αποθηκευμένες κρατήσεις: " + bookings.count());
+        check(counters.taken(new Booking.EventKey(Booking.EventType.THEATER, 1)) == created.get(), "μετρητής θέσεων");
+        for (CsvRepository<?> r : List.of(theater, music, customers, bookings)) r.close();
+        System.out.println("ApiServerLoadTest OK");
+    }
+
+    private static <T extends Identifiable> CsvRepository<T> repo(Path dir, String file, EntityDescriptor<T> descriptor) {
+        return new CsvRepository<>(dir.resolve(file).toString(), descriptor, FsyncPolicy.BATCH, 100_000);
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) throw new AssertionError(what);
+    }
+}
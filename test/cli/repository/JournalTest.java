@@ -0,0 +1,61 @@
+package cli.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Έλεγχοι του {@link Journal}. Εκτέλεση: {@code java -cp out:out-test cli.repository.JournalTest}.
+ */
+public final class JournalTest {
+
+    public static void main(String[] args) throws IOException {
+        rotateAfterTornRotatedSegment();
+        System.out.println("JournalTest OK");
+    }
+
+    /**
+     * Crash στη μέση της προσθήκης στο {@code <journal>.1} αφήνει μισή γραμμή· η επόμενη
+     * {@link Journal#rotate()} πρέπει να την αποκόψει πριν προσθέσει.
+     */
+    private static void rotateAfterTornRotatedSegment() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        Path path = dir.resolve("customers.csv.journal");
+        Path rotated = dir.resolve("customers.csv.journal.1");
+
+        Journal journal = new Journal(path, FsyncPolicy.ALWAYS, 1);
+        journal.replay(line -> { }, id -> { }, id -> { });
+        journal.appendUpsert("1|Άλφα");
+        journal.appendDelete(7);
+        journal.rotate();
+        journal.close();
+        /* crash κατά την προσθήκη: μισογραμμένη εγγραφή στο τέλος του τμήματος */
+        Files.write(rotated, "+|2|Μισ".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        journal = new Journal(path, FsyncPolicy.ALWAYS, 1);
+        check(replay(journal).equals(List.of("+1|Άλφα", "-7")), "replay με μισογραμμένο τμήμα: " + replay(journal));
+        journal.appendUpsert("3|Γάμμα");
+        journal.rotate();
+        journal.appendUpsert("4|Δέλτα");
+        journal.close();
+
+        journal = new Journal(path, FsyncPolicy.ALWAYS, 1);
+        List<String> seen = replay(journal);
+        check(seen.equals(List.of("+1|Άλφα", "-7", "+3|Γάμμα", "+4|Δέλτα")), "replay μετά τη rotate: " + seen);
+        journal.close();
+    }
+
+    private static List<String> replay(Journal journal) {
+        List<String> seen = new ArrayList<>();
+        journal.replay(line -> seen.add("+" + line), id -> seen.add("-" + id), id -> seen.add("#" + id));
+        return seen;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) throw new AssertionError(what);
+    }
+}
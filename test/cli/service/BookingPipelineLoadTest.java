@@ -0,0 +1,132 @@
+package cli.service;
+
+import cli.codec.BookingCodec;
+import cli.codec.CustomerCodec;
+import cli.codec.EntityDescriptor;
+import cli.codec.MusicShowCodec;
+import cli.codec.TheaterPlayCodec;
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.Identifiable;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+import cli.repository.FsyncPolicy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Συνθετικό φορτίο αιχμής (έναρξη προπώλησης) πάνω στη {@link BookingPipeline}, με σύγκριση
+ * απέναντι σε απευθείας κλήσεις {@link BookingService#book}. Πολλοί πελάτες ζητούν ταυτόχρονα
+ * θέσεις σε παράσταση περιορισμένης χωρητικότητας· ένα μέρος των αιτήσεων αφορά ανύπαρκτο
+ * πελάτη. Τυπώνει ρυθμό και εκατοστημόρια καθυστέρησης και ελέγχει ότι δεν γίνεται
+ * υπέρβαση της χωρητικότητας και ότι μετρητές και αποθηκευμένες κρατήσεις συμφωνούν.
+ * <p>Εκτέλεση: {@code java -cp out:out-test cli.service.BookingPipelineLoadTest
+ * [πελάτες] [αιτήσεις ανά πελάτη] [θέσεις] [ALWAYS|BATCH|NONE]}.</p>
+ */
+public final class BookingPipelineLoadTest {
+
+    /** Κάθε τόσες αιτήσεις, μία αφορά ανύπαρκτο πελάτη. */
+    private static final int UNKNOWN_CUSTOMER_EVERY = 10;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int perClient = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seats = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        FsyncPolicy fsync = args.length > 3 ? FsyncPolicy.valueOf(args[3]) : FsyncPolicy.BATCH;
+        run(true, clients, perClient, seats, fsync);
+        run(false, clients, perClient, seats, fsync);
+        System.out.println("BookingPipelineLoadTest OK");
+    }
+
+    private static void run(boolean pipelined, int clients, int perClient, int seats, FsyncPolicy fsync) throws Exception {
+        Path dir = Files.createTempDirectory("pipeline-load");
+        CsvRepository<TheaterPlay> theater = repo(dir, "theater.csv", TheaterPlayCodec.DESCRIPTOR, fsync);
+        CsvRepository<MusicShow> music = repo(dir, "music.csv", MusicShowCodec.DESCRIPTOR, fsync);
+        CsvRepository<Customer> customers = repo(dir, "customers.csv", CustomerCodec.DESCRIPTOR, fsync);
+        CsvRepository<Booking> bookings = repo(dir, "bookings.csv", BookingCodec.DESCRIPTOR, fsync);
+        SeatCounters counters = new SeatCounters();
+        bookings.addListener(counters);
+        for (CsvRepository<?> r : List.of(theater, music, customers, bookings)) r.load();
+        theater.save(new TheaterPlay(1, "Ο Βυσσινόκηπος", "Κ. Καζάκου", "Θέατρο Τέχνης", LocalDate.of(2030, 3, 14), seats));
+        for (int i = 1; i <= clients; i++) customers.save(new Customer(i, "Πελάτης " + i));
+        BookingService service = new BookingService(customers, theater, music, bookings, counters);
+        BookingPipeline pipeline = new BookingPipeline(customers, theater, music, bookings, service, counters,
+                BookingPipeline.DEFAULT_CAPACITY);
+
+        LatencyHistogram direct = new LatencyHistogram();
+        AtomicInteger created = new AtomicInteger(), rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> done = new ArrayList<>();
+        for (int c = 1; c <= clients; c++) {
+            int client = c;
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < perClient; i++) {
+                    int customer = i % UNKNOWN_CUSTOMER_EVERY == 0 ? 0 : client;
+                    if (pipelined) {
+                        try {
+                            pipeline.submit(customer, Booking.EventType.THEATER, 1).join();
+                            created.incrementAndGet();
+                        } catch (CompletionException e) {
+                            rejected.incrementAndGet();
+                        }
+                    } else {
+                        long t0 = System.nanoTime();
+                        try {
+                            service.book(customer, Booking.EventType.THEATER, 1);
+                            created.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            rejected.incrementAndGet();
+                        }
+                        direct.record(System.nanoTime() - t0);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        pipeline.close();
+
+        int requests = clients * perClient;
+        int valid = clients * (perClient - (perClient + UNKNOWN_CUSTOMER_EVERY - 1) / UNKNOWN_CUSTOMER_EVERY);
+        System.out.printf("%s, %s: %d πελάτες × %d αιτήσεις: %d κρατήσεις, %d απορρίψεις · %.2f s (%,.0f αιτήσεις/s)%n  %s%n",
+                pipelined ? "σωλήνωση" : "απευθείας", fsync, clients, perClient, created.get(), rejected.get(),
+                seconds, requests / seconds, pipelined ? pipeline.latency() : direct);
+        Booking.EventKey key = new Booking.EventKey(Booking.EventType.THEATER, 1);
+        check(created.get() + rejected.get() == requests, "αναπάντητες αιτήσεις");
+        check(created.get() == Math.min(seats, valid), "κρατήσεις: " + created.get());
+        check(bookings.count() == created.get(), "αποθηκευμένες κρατήσεις: " + bookings.count());
+        check(counters.taken(key) == created.get(), "μετρητής θέσεων: " + counters.taken(key));
+        check(counters.stats().total(Booking.EventType.THEATER) == created.get(), "στατιστικά κρατήσεων");
+        int last = bookings.findAll().stream().mapToInt(Booking::getId).max().orElse(0);
+        for (CsvRepository<?> r : List.of(theater, music, customers, bookings)) r.close();
+
+        /* οι κωδικοί που δόθηκαν σε μπλοκ δεν ξαναδίνονται μετά την επανεκκίνηση */
+        CsvRepository<Booking> reopened = repo(dir, "bookings.csv", BookingCodec.DESCRIPTOR, fsync);
+        reopened.load();
+        check(reopened.count() == created.get(), "κρατήσεις μετά τη φόρτωση: " + reopened.count());
+        check(reopened.nextId() > last, "επανάληψη κωδικού μετά τη φόρτωση");
+        reopened.close();
+    }
+
+    private static <T extends Identifiable> CsvRepository<T> repo(Path dir, String file, EntityDescriptor<T> descriptor,
+                                                                  FsyncPolicy fsync) {
+        return new CsvRepository<>(dir.resolve(file).toString(), descriptor, fsync, 100_000);
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) throw new AssertionError(what);
+    }
+}
@@ -0,0 +1,98 @@
+package cli.service;
+
+import cli.codec.BookingCodec;
+import cli.codec.CustomerCodec;
+import cli.codec.MusicShowCodec;
+import cli.codec.TheaterPlayCodec;
+import cli.entity.Booking;
+import cli.entity.Customer;
+import cli.entity.MusicShow;
+import cli.entity.TheaterPlay;
+import cli.repository.CsvRepository;
+import cli.repository.FsyncPolicy;
+import cli.repository.LoadMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Έλεγχοι της {@link BookingService}. Εκτέλεση: {@code java -cp out:out-test cli.service.BookingServiceTest}.
+ */
+public final class BookingServiceTest {
+
+    public static void main(String[] args) throws IOException {
+        lazyLoadKeepsTheCapacityEdge();
+        System.out.println("BookingServiceTest OK");
+    }
+
+    /**
+     * Με αναβληθείσα φόρτωση ({@code --lazy}), η πρώτη κράτηση δεν πρέπει να δεσμεύει θέση
+     * πριν φορτωθούν οι κρατήσεις: η φόρτωση αναδομεί τους μετρητές.
+     */
+    private static void lazyLoadKeepsTheCapacityEdge() throws IOException {
+        Path dir = Files.createTempDirectory("booking-service");
+        Repos repos = new Repos(dir);
+        repos.loadAll();
+        repos.theater.save(new TheaterPlay(1, "Ο Βυσσινόκηπος", "Κ. Καζάκου", "Θέατρο Τέχνης", LocalDate.of(2030, 3, 14), 2));
+        repos.customers.save(new Customer(1, "Πελάτης"));
+        repos.bookings.save(new Booking(repos.bookings.nextId(), 1, Booking.EventType.THEATER, 1));
+        repos.close();
+
+        repos = new Repos(dir);
+        for (CsvRepository<?> r : repos.all()) r.loadLazily(LoadMode.SEQUENTIAL);
+        Booking.EventKey key = new Booking.EventKey(Booking.EventType.THEATER, 1);
+        repos.service.book(1, Booking.EventType.THEATER, 1);
+        check(repos.seats.taken(key) == 2, "η δεύτερη θέση μετρήθηκε: " + repos.seats.taken(key));
+        try {
+            repos.service.book(1, Booking.EventType.THEATER, 1);
+            throw new AssertionError("κράτηση πέρα από τη χωρητικότητα");
+        } catch (IllegalArgumentException expected) {
+            /* πλήρης */
+        }
+        check(repos.bookings.count() == 2, "κρατήσεις: " + repos.bookings.count());
+        repos.close();
+
+        repos = new Repos(dir);
+        repos.loadAll();
+        check(repos.bookings.count() == 2, "κρατήσεις μετά τη φόρτωση: " + repos.bookings.count());
+        check(repos.seats.taken(key) == 2, "θέσεις μετά τη φόρτωση: " + repos.seats.taken(key));
+        repos.close();
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) throw new AssertionError(what);
+    }
+
+    /** Τα αποθετήρια μιας εφαρμογής σε δοκιμαστικό κατάλογο. */
+    private static final class Repos {
+        final CsvRepository<TheaterPlay> theater;
+        final CsvRepository<MusicShow> music;
+        final CsvRepository<Customer> customers;
+        final CsvRepository<Booking> bookings;
+        final SeatCounters seats = new SeatCounters();
+        final BookingService service;
+
+        Repos(Path dir) {
+            theater = new CsvRepository<>(dir.resolve("theater.csv").toString(), TheaterPlayCodec.DESCRIPTOR, FsyncPolicy.BATCH, 1000);
+            music = new CsvRepository<>(dir.resolve("music.csv").toString(), MusicShowCodec.DESCRIPTOR, FsyncPolicy.BATCH, 1000);
+            customers = new CsvRepository<>(dir.resolve("customers.csv").toString(), CustomerCodec.DESCRIPTOR, FsyncPolicy.BATCH, 1000);
+            bookings = new CsvRepository<>(dir.resolve("bookings.csv").toString(), BookingCodec.DESCRIPTOR, FsyncPolicy.BATCH, 1000);
+            bookings.addListener(seats);
+            service = new BookingService(customers, theater, music, bookings, seats);
+        }
+
+        CsvRepository<?>[] all() {
+            return new CsvRepository<?>[] { theater, music, customers, bookings };
+        }
+
+        void loadAll() {
+            for (CsvRepository<?> r : all()) r.load();
+        }
+
+        void close() {
+            for (CsvRepository<?> r : all()) r.close();
+        }
+    }
+}